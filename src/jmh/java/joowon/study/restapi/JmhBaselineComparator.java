@@ -0,0 +1,96 @@
+package joowon.study.restapi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JMH json 결과(-rf json)를 저장해둔 기준 결과와 비교한다.
+ * 점수가 threshold(%) 이상 나빠졌고 그 차이가 양쪽 오차 범위보다 크면 회귀로 보고 1 로 종료한다.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec                      # target/jmh-result.json 생성
+ * cp target/jmh-result.json src/jmh/baseline.json       # 기준 결과로 저장
+ * mvn -Pjmh test-compile exec:exec exec:exec@jmh-compare # 다시 측정해서 비교
+ * </pre>
+ */
+public class JmhBaselineComparator {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: JmhBaselineComparator <baseline.json> <result.json> [threshold%]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.exists()) {
+            System.err.println("baseline not found: " + baselineFile + " (copy a jmh result there first)");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(baselineFile));
+        Map<String, JsonNode> current = index(objectMapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        System.out.printf("%-80s %6s %14s %14s %9s%n", "Benchmark", "Mode", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode result = entry.getValue();
+            String mode = result.path("mode").asText();
+            JsonNode metric = result.path("primaryMetric");
+            double score = metric.path("score").asDouble();
+            String unit = metric.path("scoreUnit").asText();
+
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-80s %6s %14s %14.3f %9s  %s%n", entry.getKey(), mode, "-", score, "new", unit);
+                continue;
+            }
+            JsonNode baseMetric = base.path("primaryMetric");
+            double baseScore = baseMetric.path("score").asDouble();
+            double change = (score - baseScore) / baseScore * 100;
+            boolean higherIsBetter = "thrpt".equals(mode);
+            double worse = higherIsBetter ? -change : change;
+            double noise = error(metric) + error(baseMetric);
+            boolean regressed = worse > threshold && Math.abs(score - baseScore) > noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-80s %6s %14.3f %14.3f %+8.1f%%  %s%s%n",
+                    entry.getKey(), mode, baseScore, score, change, unit, regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * benchmark 이름과 @Param 값으로 결과를 찾는다.
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String key = result.path("benchmark").asText();
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                Map<String, String> sorted = new TreeMap<>();
+                params.fields().forEachRemaining(p -> sorted.put(p.getKey(), p.getValue().asText()));
+                key += sorted;
+            }
+            index.put(key, result);
+        }
+        return index;
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,47 @@
+package joowon.study.restapi.accounts;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * loadUserByUsername 마다 일어나는 AccountAdapter 생성 비용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountAdapterBenchmark {
+
+    Account admin;
+    Account user;
+
+    @Setup
+    public void setup() {
+        admin = Account.builder()
+                .id(1)
+                .email("admin@email.com")
+                .password("{bcrypt}$2a$10$abcdefghijklmnopqrstuu")
+                .roles(Set.of(AccountRole.ADMIN, AccountRole.USER))
+                .build();
+        user = Account.builder()
+                .id(2)
+                .email("user@email.com")
+                .password("{bcrypt}$2a$10$abcdefghijklmnopqrstuu")
+                .roles(Set.of(AccountRole.USER))
+                .build();
+    }
+
+    @Benchmark
+    public AccountAdapter admin() {
+        return new AccountAdapter(admin);
+    }
+
+    @Benchmark
+    public AccountAdapter user() {
+        return new AccountAdapter(user);
+    }
+}
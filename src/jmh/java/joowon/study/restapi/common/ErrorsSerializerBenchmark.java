@@ -0,0 +1,52 @@
+package joowon.study.restapi.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 400 응답 본문을 만드는 ErrorsSerializer 비용. 필드 에러 5개와 글로벌 에러 2개.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorsSerializerBenchmark {
+
+    ObjectMapper objectMapper;
+    Errors errors;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new SimpleModule().addSerializer(Errors.class, new ErrorsSerializer()));
+
+        Map<String, Object> target = new HashMap<>();
+        target.put("basePrice", 10000);
+        target.put("maxPrice", 200);
+        target.put("endEventDateTime", "2018-10-01T09:18");
+        target.put("name", "");
+        target.put("limitOfEnrollment", -1);
+        errors = new MapBindingResult(target, "eventDto");
+        errors.rejectValue("basePrice", "wrongValue", "BasePrice is wrong");
+        errors.rejectValue("maxPrice", "wrongValue", "MaxPrice is wrong");
+        errors.rejectValue("endEventDateTime", "wrongValue", "endEventDateTime is wrong");
+        errors.rejectValue("name", "NotEmpty", "must not be empty");
+        errors.rejectValue("limitOfEnrollment", "Min", "must be greater than or equal to 0");
+        errors.reject("wrongPrices", "Values for prices are wrong");
+        errors.reject("wrongDates", "Values for dates are wrong");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(errors);
+    }
+}
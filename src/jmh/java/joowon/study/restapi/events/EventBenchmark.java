@@ -0,0 +1,37 @@
+package joowon.study.restapi.events;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event.update() 비용. free/offline 이 바뀌는 경우와 그대로인 경우를 번갈아 넣는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBenchmark {
+
+    Event[] events;
+    int index;
+
+    @Setup
+    public void setup() {
+        events = new Event[]{
+                Event.builder().basePrice(0).maxPrice(0).build(),
+                Event.builder().basePrice(100).maxPrice(200).location("안양역").build(),
+                Event.builder().basePrice(0).maxPrice(0).location(" ").build(),
+                Event.builder().basePrice(100).maxPrice(0).location("강남역").build()
+        };
+    }
+
+    @Benchmark
+    public Event update() {
+        Event event = events[index++ & 3];
+        event.update();
+        return event;
+    }
+}
@@ -0,0 +1,126 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import joowon.study.restapi.common.ApiLinks;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.HateoasPageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/events 페이지(100 개)를 HAL JSON, CBOR, Smile 로 쓰고 읽는 비용.
+ * 응답 크기는 셋업할 때 출력한다. (format 별 bytes)
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EventBinaryFormatBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBinaryFormatBenchmark {
+
+    public enum Format {
+        JSON(new JsonFactory()), CBOR(new CBORFactory()), SMILE(new SmileFactory());
+
+        private final JsonFactory factory;
+
+        Format(JsonFactory factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    Format format;
+
+    ObjectMapper objectMapper;
+    EventPagedResources page;
+    byte[] pageBytes;
+    byte[] eventDtoBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper(format.factory)
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jackson2HalModule())
+                .registerModule(new SimpleModule()
+                        .addSerializer(Event.class, new EventSerializer())
+                        .addSerializer(EventResource.class, new EventResourceSerializer())
+                        .addSerializer(EventPagedResources.class, new EventPagedResourcesSerializer()))
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new DefaultRelProvider(), null, null));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(Event.builder()
+                    .id(i)
+                    .name("event " + i)
+                    .description("test event")
+                    .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                    .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                    .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                    .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                    .basePrice(100)
+                    .maxPrice(200)
+                    .limitOfEnrollment(100)
+                    .location("안양역")
+                    .eventStatus(EventStatus.DRAFT)
+                    .build());
+        }
+        var pagedResources = new PagedResourcesAssembler<Event>(new HateoasPageableHandlerMethodArgumentResolver(), null)
+                .toResource(new PageImpl<>(events, PageRequest.of(1, 100), 1000), e -> new EventResource(e));
+        pagedResources.add(ApiLinks.profile("resources-events-list"));
+        page = new EventPagedResources(pagedResources);
+        RequestContextHolder.resetRequestAttributes();
+
+        pageBytes = objectMapper.writeValueAsBytes(page);
+        eventDtoBytes = objectMapper.writeValueAsBytes(EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build());
+        System.out.printf("%n%s page: %d bytes, eventDto: %d bytes%n", format, pageBytes.length, eventDtoBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public JsonNode readPage() throws Exception {
+        return objectMapper.readTree(pageBytes);
+    }
+
+    @Benchmark
+    public EventDto readEventDto() throws Exception {
+        return objectMapper.readValue(eventDtoBytes, EventDto.class);
+    }
+}
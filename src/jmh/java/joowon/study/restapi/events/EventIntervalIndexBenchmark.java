@@ -0,0 +1,140 @@
+package joowon.study.restapi.events;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모집 기간 겹침 조회. EventIntervalIndex 와 같은 조건의 SQL (H2, 시작 일시 B-tree 인덱스) 비교.
+ * 둘 다 한 페이지(20 개)와 전체 일치 수를 구한다. 모집 기간은 3년 동안 흩어져 있고 길이는 1~30일이다.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EventIntervalIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class EventIntervalIndexBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2018, 1, 1, 0, 0);
+    private static final String PAGE = "select id from event where begin_enrollment <= ? and close_enrollment >= ?"
+            + " order by begin_enrollment, id limit 20";
+    private static final String COUNT = "select count(*) from event where begin_enrollment <= ? and close_enrollment >= ?";
+
+    @Param("1000000")
+    int events;
+
+    EventIntervalIndex index;
+    Connection connection;
+    PreparedStatement page;
+    PreparedStatement count;
+    // 같은 값으로 반복하면 H2 가 결과를 재사용하므로 조회 시각을 돌려가며 쓴다
+    LocalDateTime[] instants = new LocalDateTime[64];
+    int next;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:interval;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table event (id int primary key, begin_enrollment timestamp, close_enrollment timestamp)");
+        }
+
+        index = new EventIntervalIndex();
+        Random random = new Random(42);
+        Event event = new Event();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into event values (?, ?, ?)")) {
+            for (int id = 1; id <= events; id++) {
+                LocalDateTime begin = BASE.plusMinutes(random.nextInt(3 * 365 * 24 * 60));
+                LocalDateTime close = begin.plusHours(24 + random.nextInt(29 * 24));
+                event.setId(id);
+                event.setBeginEnrollmentDateTime(begin);
+                event.setCloseEnrollmentDateTime(close);
+                index.index(event);
+
+                insert.setInt(1, id);
+                insert.setTimestamp(2, Timestamp.valueOf(begin));
+                insert.setTimestamp(3, Timestamp.valueOf(close));
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        try (Statement statement = connection.createStatement()) {
+            // Event 엔티티의 idx_event_begin_enrollment_id 와 같은 인덱스
+            statement.execute("create index idx_event_begin_enrollment_id on event (begin_enrollment, id)");
+            statement.execute("create index idx_event_close_enrollment on event (close_enrollment)");
+            statement.execute("analyze");
+        }
+        for (int i = 0; i < instants.length; i++) {
+            instants[i] = BASE.plusDays(400 + i * 7).plusMinutes(random.nextInt(24 * 60));
+        }
+        page = connection.prepareStatement(PAGE);
+        count = connection.prepareStatement(COUNT);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public EventIndexHits indexNow() {
+        LocalDateTime now = nextInstant();
+        return index.overlaps(EventIntervalIndex.Period.ENROLLMENT, now, now, 0, 20);
+    }
+
+    @Benchmark
+    public long sqlNow() throws SQLException {
+        LocalDateTime now = nextInstant();
+        return query(now, now);
+    }
+
+    @Benchmark
+    public EventIndexHits indexWeek() {
+        LocalDateTime now = nextInstant();
+        return index.overlaps(EventIntervalIndex.Period.ENROLLMENT, now, now.plusDays(7), 0, 20);
+    }
+
+    @Benchmark
+    public long sqlWeek() throws SQLException {
+        LocalDateTime now = nextInstant();
+        return query(now, now.plusDays(7));
+    }
+
+    private LocalDateTime nextInstant() {
+        return instants[next++ & (instants.length - 1)];
+    }
+
+    private long query(LocalDateTime from, LocalDateTime to) throws SQLException {
+        long sum = 0;
+        for (PreparedStatement statement : new PreparedStatement[]{page, count}) {
+            statement.setTimestamp(1, Timestamp.valueOf(to));
+            statement.setTimestamp(2, Timestamp.valueOf(from));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    sum += rs.getLong(1);
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,68 @@
+package joowon.study.restapi.events;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 일어나는 EventDto -> Event 매핑 비용 비교 (ModelMapper vs EventMapper).
+ * 할당량은 -prof gc 로 함께 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMapperBenchmark {
+
+    ModelMapper modelMapper;
+    EventMapper eventMapper;
+    EventDto eventDto;
+    Event existingEvent;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        eventMapper = new EventMapper();
+        eventDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+        existingEvent = eventMapper.toEvent(eventDto);
+        // 첫 호출에서 만들어지는 TypeMap 비용은 측정에서 뺀다
+        modelMapper.map(eventDto, Event.class);
+    }
+
+    @Benchmark
+    public Event createWithModelMapper() {
+        return modelMapper.map(eventDto, Event.class);
+    }
+
+    @Benchmark
+    public Event createWithEventMapper() {
+        return eventMapper.toEvent(eventDto);
+    }
+
+    @Benchmark
+    public Event updateWithModelMapper() {
+        modelMapper.map(eventDto, existingEvent);
+        return existingEvent;
+    }
+
+    @Benchmark
+    public Event updateWithEventMapper() {
+        eventMapper.update(eventDto, existingEvent);
+        return existingEvent;
+    }
+}
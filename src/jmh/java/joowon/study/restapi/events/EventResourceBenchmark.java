@@ -0,0 +1,121 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import joowon.study.restapi.common.ApiLinks;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.HateoasPageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * 100 개짜리 이벤트 목록을 만들고 HAL JSON 으로 쓰는 비용.
+ * linkTo 를 이벤트마다 호출하던 방식과 ApiLinks 로 요청당 한번만 호출하는 방식을 비교한다.
+ * 요청마다 새 request attribute 를 쓰도록 Invocation 단위로 요청을 바꾼다.
+ * renderPage 는 GET /api/events 와 같이 PagedResourcesAssembler 로 페이지 전체를 만든다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventResourceBenchmark {
+
+    List<Event> events;
+    ObjectMapper objectMapper;
+    PagedResourcesAssembler<Event> assembler;
+
+    @Setup
+    public void setup() {
+        events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(Event.builder()
+                    .id(i)
+                    .name("event " + i)
+                    .description("test event")
+                    .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                    .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                    .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                    .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                    .basePrice(100)
+                    .maxPrice(200)
+                    .limitOfEnrollment(100)
+                    .location("안양역")
+                    .eventStatus(EventStatus.DRAFT)
+                    .build());
+        }
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jackson2HalModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new DefaultRelProvider(), null, null));
+        assembler = new PagedResourcesAssembler<>(new HateoasPageableHandlerMethodArgumentResolver(), null);
+    }
+
+    @Setup(Level.Invocation)
+    public void newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown(Level.Invocation)
+    public void endRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Resources<Resource<Event>> buildWithLinkTo() {
+        return new Resources<>(events.stream()
+                .map(e -> new Resource<>(e, linkTo(EventController.class).slash(e.getId()).withSelfRel()))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public Resources<EventResource> buildWithApiLinks() {
+        return new Resources<>(events.stream()
+                .map(EventResource::new)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public PagedResources<EventResource> buildPage() {
+        var page = new PageImpl<>(events, PageRequest.of(1, events.size()), events.size() * 10L);
+        PagedResources<EventResource> pagedResources = assembler.toResource(page, e -> new EventResource(e));
+        pagedResources.add(ApiLinks.profile("resources-events-list"));
+        return pagedResources;
+    }
+
+    @Benchmark
+    public byte[] renderPage() throws Exception {
+        return objectMapper.writeValueAsBytes(buildPage());
+    }
+
+    @Benchmark
+    public byte[] renderWithLinkTo() throws Exception {
+        return objectMapper.writeValueAsBytes(buildWithLinkTo());
+    }
+
+    @Benchmark
+    public byte[] renderWithApiLinks() throws Exception {
+        return objectMapper.writeValueAsBytes(buildWithApiLinks());
+    }
+}
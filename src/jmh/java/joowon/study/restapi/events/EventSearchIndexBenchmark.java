@@ -0,0 +1,110 @@
+package joowon.study.restapi.events;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이벤트 100만 개를 색인했을 때 이벤트당 메모리와 검색 지연시간.
+ * 단어는 2만 개 어휘에서 Zipf 분포로 뽑는다. (자주 나오는 단어일수록 포스팅 리스트가 길다)
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EventSearchIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class EventSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+
+    @Param("1000000")
+    int events;
+
+    EventSearchIndex index;
+    String[] words;
+
+    @Setup
+    public void setup() {
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = word(i);
+        }
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+
+        long before = usedHeap();
+        index = new EventSearchIndex();
+        Random random = new Random(42);
+        Event event = new Event();
+        for (int id = 1; id <= events; id++) {
+            event.setId(id);
+            event.setName(text(random, cumulative, sum, 3));
+            event.setLocation(text(random, cumulative, sum, 1));
+            event.setDescription(text(random, cumulative, sum, 12));
+            index.index(event);
+        }
+        index.compact();
+        long after = usedHeap();
+        System.out.printf("%n%d events, %d terms, %.1f bytes/event%n",
+                index.getDocumentCount(), index.getTermCount(), (double) (after - before) / events);
+    }
+
+    @Benchmark
+    public EventIndexHits common() {
+        return index.search(words[0], 0, 20);
+    }
+
+    @Benchmark
+    public EventIndexHits rare() {
+        return index.search(words[15_000], 0, 20);
+    }
+
+    @Benchmark
+    public EventIndexHits twoTerms() {
+        return index.search(words[3] + " " + words[40], 0, 20);
+    }
+
+    @Benchmark
+    public EventIndexHits commonAndRare() {
+        return index.search(words[0] + " " + words[5_000], 0, 20);
+    }
+
+    @Benchmark
+    public EventIndexHits deepPage() {
+        return index.search(words[1], 2_000, 20);
+    }
+
+    private String text(Random random, double[] cumulative, double sum, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            text.append(words[rank < 0 ? -rank - 1 : rank]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String word(int i) {
+        StringBuilder word = new StringBuilder();
+        do {
+            word.append((char) ('a' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return word.append("x").toString();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,107 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import joowon.study.restapi.common.ApiLinks;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.HateoasPageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리플렉션 기반 HAL 직렬화와 EventSerializer 계열 직접 직렬화 비교.
+ * 할당량은 -prof gc 로 본다. (gc.alloc.rate.norm)
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="EventSerializerBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializerBenchmark {
+
+    ObjectMapper reflective;
+    ObjectMapper handWritten;
+    EventResource resource;
+    PagedResources<EventResource> page;
+    EventPagedResources eventPage;
+
+    @Setup
+    public void setup() {
+        reflective = halObjectMapper();
+        handWritten = halObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(Event.class, new EventSerializer())
+                .addSerializer(EventResource.class, new EventResourceSerializer())
+                .addSerializer(EventPagedResources.class, new EventPagedResourcesSerializer()));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            events.add(Event.builder()
+                    .id(i)
+                    .name("event " + i)
+                    .description("test event")
+                    .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                    .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                    .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                    .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                    .basePrice(100)
+                    .maxPrice(200)
+                    .limitOfEnrollment(100)
+                    .location("안양역")
+                    .eventStatus(EventStatus.DRAFT)
+                    .build());
+        }
+        resource = new EventResource(events.get(0), ApiLinks.profile("resources-events-get"));
+        page = new PagedResourcesAssembler<Event>(new HateoasPageableHandlerMethodArgumentResolver(), null)
+                .toResource(new PageImpl<>(events, PageRequest.of(1, 20), 200), e -> new EventResource(e));
+        page.add(ApiLinks.profile("resources-events-list"));
+        eventPage = new EventPagedResources(page);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static ObjectMapper halObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jackson2HalModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new DefaultRelProvider(), null, null));
+        return objectMapper;
+    }
+
+    @Benchmark
+    public byte[] resourceReflective() throws Exception {
+        return reflective.writeValueAsBytes(resource);
+    }
+
+    @Benchmark
+    public byte[] resourceHandWritten() throws Exception {
+        return handWritten.writeValueAsBytes(resource);
+    }
+
+    @Benchmark
+    public byte[] pageReflective() throws Exception {
+        return reflective.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageHandWritten() throws Exception {
+        return handWritten.writeValueAsBytes(eventPage);
+    }
+}
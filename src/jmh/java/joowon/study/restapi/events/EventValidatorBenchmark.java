@@ -0,0 +1,62 @@
+package joowon.study.restapi.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventValidator.validate 비용. 에러가 없을 때와 필드 에러가 3개 나올 때를 나눠서 본다.
+ * 컨트롤러처럼 호출마다 BeanPropertyBindingResult 를 새로 만든다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventValidatorBenchmark {
+
+    EventValidator eventValidator;
+    EventDto validDto;
+    EventDto invalidDto;
+
+    @Setup
+    public void setup() {
+        eventValidator = new EventValidator(new SimpleMeterRegistry());
+        validDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+        invalidDto = validDto.toBuilder()
+                .basePrice(10000)
+                .maxPrice(200)
+                .endEventDateTime(LocalDateTime.of(2018, 10, 1, 9, 18))
+                .build();
+    }
+
+    @Benchmark
+    public Errors validateValid() {
+        Errors errors = new BeanPropertyBindingResult(validDto, "eventDto");
+        eventValidator.validate(validDto, errors);
+        return errors;
+    }
+
+    @Benchmark
+    public Errors validateInvalid() {
+        Errors errors = new BeanPropertyBindingResult(invalidDto, "eventDto");
+        eventValidator.validate(invalidDto, errors);
+        return errors;
+    }
+}
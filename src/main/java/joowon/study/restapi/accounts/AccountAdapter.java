@@ -4,23 +4,60 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 public class AccountAdapter extends User {
 
+    /**
+     * 역할 조합(비트마스크)별로 한번 만든 권한 Set 을 재사용한다.
+     */
+    private static final ConcurrentMap<Integer, Set<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
     private Account account;
 
+    private final Set<GrantedAuthority> authorities;
+
+    /**
+     * User 생성자는 넘겨받은 권한을 TreeSet 으로 정렬해서 복사하므로 빈 목록을 넘기고, getAuthorities 에서 공유하는 Set 을 돌려준다.
+     */
     public AccountAdapter(Account account){
-        super(account.getEmail(), account.getPassword(), authorities(account.getRoles()));
+        super(account.getEmail(), account.getPassword(), Collections.emptySet());
         this.account = account;
+        this.authorities = authorities(account.getRoles());
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return this.authorities;
+    }
+
+    static Set<GrantedAuthority> authorities(Set<AccountRole> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (AccountRole role : roles) {
+                mask |= 1 << role.ordinal();
+            }
+        }
+        return AUTHORITIES.computeIfAbsent(mask, AccountAdapter::createAuthorities);
     }
 
-    private static Collection<? extends GrantedAuthority> authorities(Set<AccountRole> roles) {
-        return roles.stream()
+    /**
+     * User 와 같이 권한 이름 순서로 정렬해 둔다.
+     */
+    private static Set<GrantedAuthority> createAuthorities(int mask) {
+        Set<GrantedAuthority> authorities = Arrays.stream(AccountRole.values())
+                .filter(r -> (mask & (1 << r.ordinal())) != 0)
                 .map(r -> new SimpleGrantedAuthority("ROLE_"+r.name()))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(GrantedAuthority::getAuthority))));
+        return Collections.unmodifiableSet(authorities);
     }
 
     public Account getAccount() {
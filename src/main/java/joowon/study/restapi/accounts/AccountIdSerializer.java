@@ -0,0 +1,19 @@
+package joowon.study.restapi.accounts;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * 계정 id 를 {"id": ...} 형태로 쓴다. Account 엔티티를 읽지 않아도 된다.
+ */
+public class AccountIdSerializer extends JsonSerializer<Integer> {
+    @Override
+    public void serialize(Integer accountId, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeNumberField("id", accountId);
+        jsonGenerator.writeEndObject();
+    }
+}
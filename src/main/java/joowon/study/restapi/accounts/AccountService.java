@@ -1,19 +1,18 @@
 package joowon.study.restapi.accounts;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import joowon.study.restapi.common.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import javax.annotation.PostConstruct;
 import java.util.Set;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
 
 @Service
 public class AccountService implements UserDetailsService {
@@ -24,14 +23,61 @@ public class AccountService implements UserDetailsService {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    AppProperties appProperties;
+
+    /**
+     * email 로 찾은 Account 의 복사본. /oauth/token 요청마다 findByEmail + roles 조회를 하지 않도록 한다.
+     */
+    private Cache<String, Account> accountCache;
+
+    @PostConstruct
+    void initAccountCache() {
+        this.accountCache = Caffeine.newBuilder()
+                .maximumSize(this.appProperties.getAccountCacheMaximumSize())
+                .expireAfterWrite(this.appProperties.getAccountCacheTtl())
+                .recordStats()
+                .build();
+    }
+
     public Account saveAccount(Account account) {
         account.setPassword(this.passwordEncoder.encode(account.getPassword()));
-        return this.accountRepository.save(account);
+        Account saved = this.accountRepository.save(account);
+        evict(saved);
+        return saved;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Account account = accountRepository.findByEmail(username).orElseThrow(() -> new UsernameNotFoundException(username));
-        return new AccountAdapter(account);
+        // 읽는 동안 saveAccount 가 evict 하면 읽기가 끝난 뒤에 지워지므로 예전 비밀번호, 권한이 남지 않는다
+        Account cached = this.accountCache.get(username, key -> this.accountRepository.findByEmail(key).map(AccountService::copy).orElse(null));
+        if (cached == null) {
+            throw new UsernameNotFoundException(username);
+        }
+        // 인증이 끝나면 ProviderManager 가 UserDetails 의 password 를 지우므로 AccountAdapter 는 매번 새로 만든다
+        return new AccountAdapter(copy(cached));
+    }
+
+    public CacheStats accountCacheStats() {
+        return this.accountCache.stats();
+    }
+
+    /**
+     * email 이 바뀐 경우도 있으니 같은 id 를 가진 항목도 함께 지운다.
+     */
+    private void evict(Account account) {
+        this.accountCache.invalidate(account.getEmail());
+        if (account.getId() != null) {
+            this.accountCache.asMap().values().removeIf(a -> account.getId().equals(a.getId()));
+        }
+    }
+
+    private static Account copy(Account account) {
+        return Account.builder()
+                .id(account.getId())
+                .email(account.getEmail())
+                .password(account.getPassword())
+                .roles(account.getRoles() == null ? null : Set.copyOf(account.getRoles()))
+                .build();
     }
 }
@@ -0,0 +1,77 @@
+package joowon.study.restapi.common;
+
+import joowon.study.restapi.events.EventController;
+import joowon.study.restapi.index.IndexController;
+import org.springframework.hateoas.Link;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.methodOn;
+
+/**
+ * 자주 쓰는 링크를 만든다.
+ * 컨트롤러 매핑을 보고 URI 를 만드는 linkTo 는 요청마다 한번만 호출하고(request attribute 에 보관),
+ * 이벤트별 링크는 그 결과에 문자열을 붙여서 만든다.
+ */
+public final class ApiLinks {
+
+    private static final String EVENTS_BASE = ApiLinks.class.getName() + ".EVENTS_BASE";
+    private static final String INDEX = ApiLinks.class.getName() + ".INDEX";
+
+    private static final String PROFILE_PREFIX = "/docs/index.html#";
+
+    private ApiLinks() {
+    }
+
+    public static String eventsBase() {
+        return resolve(EVENTS_BASE, () -> linkTo(EventController.class).toUri().toString());
+    }
+
+    public static String eventHref(Integer id) {
+        return eventsBase() + "/" + id;
+    }
+
+    public static Link eventSelf(Integer id) {
+        return new Link(eventHref(id));
+    }
+
+    public static Link updateEvent(Integer id) {
+        return new Link(eventHref(id), "update-event");
+    }
+
+    public static Link queryEvents() {
+        return new Link(eventsBase(), "query-events");
+    }
+
+    public static Link createEvent() {
+        return new Link(eventsBase(), "create-event");
+    }
+
+    public static Link events() {
+        return new Link(eventsBase(), "events");
+    }
+
+    public static Link index() {
+        return new Link(resolve(INDEX, () -> linkTo(methodOn(IndexController.class).index()).toUri().toString()), "index");
+    }
+
+    public static Link profile(String anchor) {
+        return new Link(PROFILE_PREFIX + anchor, "profile");
+    }
+
+    private static String resolve(String name, Supplier<String> supplier) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return supplier.get();
+        }
+        String value = (String) attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST);
+        if (value == null) {
+            value = supplier.get();
+            attributes.setAttribute(name, value, RequestAttributes.SCOPE_REQUEST);
+        }
+        return value;
+    }
+}
@@ -3,9 +3,11 @@ package joowon.study.restapi.common;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import javax.validation.constraints.NotEmpty;
+import java.time.Duration;
 
 @Component
 @ConfigurationProperties(prefix = "my-app")
@@ -30,4 +32,90 @@ public class AppProperties {
     @NotEmpty
     private String clientSecret;
 
+    private long eventCacheMaximumSize = 10_000;
+
+    private Duration eventCacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * 익명 이벤트 조회 응답 캐시 (압축한 본문 크기 합). ttl 이 지나면 stale-ttl 동안 다시 조회하는 사이에 stale 응답을 준다.
+     */
+    private long eventResponseCacheMaximumBytes = 64 * 1024 * 1024;
+
+    private Duration eventResponseCacheTtl = Duration.ofSeconds(10);
+
+    private Duration eventResponseCacheStaleTtl = Duration.ofMinutes(1);
+
+    /**
+     * 목록 조회 total=ESTIMATED 에 쓰는 DB 통계 행 수를 다시 읽는 주기
+     */
+    private Duration eventCountEstimateRefresh = Duration.ofMinutes(1);
+
+    /**
+     * 모집 시작 일시가 되면 PUBLISHED 이벤트를 BEGAN_ENROLLMENT 로 바꾸는 타이밍 휠 (EventStatusScheduler).
+     * tick 단위로 시간을 진행하고, batch-size 개씩 묶어서 UPDATE 한다.
+     * API 밖에서 PUBLISHED 로 바뀐 이벤트를 놓치지 않도록 resync-interval 마다 대기 중인 이벤트를 다시 읽는다.
+     */
+    private Duration eventStatusTick = Duration.ofSeconds(1);
+
+    private int eventStatusBatchSize = 500;
+
+    private Duration eventStatusResyncInterval = Duration.ofMinutes(10);
+
+    /**
+     * 참가 신청은 메모리에서 자리를 잡고 (EnrollmentService) flush-interval 마다 batch-size 개씩 묶어서 저장한다.
+     * 저장을 기다리는 신청이 max-pending 을 넘으면 (DB 장애 등) 새 신청은 503 으로 거절한다.
+     */
+    private Duration enrollmentFlushInterval = Duration.ofMillis(100);
+
+    private int enrollmentBatchSize = 500;
+
+    private int enrollmentMaxPending = 100_000;
+
+    private long accountCacheMaximumSize = 10_000;
+
+    private Duration accountCacheTtl = Duration.ofMinutes(5);
+
+    /**
+     * in-memory : 토큰을 서버 메모리에 보관 (기본값)
+     * jwt : 서명된 JWT 를 발급하고 저장소 없이 검증
+     */
+    private String tokenStore = "in-memory";
+
+    /**
+     * in-memory 토큰 저장소가 보관할 최대 토큰 수. 넘으면 가장 먼저 만료될 토큰부터 지운다.
+     */
+    private int tokenStoreMaximumSize = 100_000;
+
+    private Duration tokenStoreSweepInterval = Duration.ofMinutes(1);
+
+    /**
+     * JWT 서명 키가 들어있는 키스토어. 없으면 기동할 때마다 새 키를 만든다.
+     */
+    private Resource jwtKeyStore;
+
+    private String jwtKeyStorePassword;
+
+    private String jwtKeyAlias;
+
+    private long jwtClaimsCacheSize = 10_000;
+
+    /**
+     * bcrypt cost. 운영은 높게, 테스트는 낮게 잡는다.
+     */
+    private int bcryptStrength = 10;
+
+    private int passwordHashingThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 해싱 대기열 길이. 가득 차면 /oauth/token 은 503 으로 응답한다.
+     */
+    private int passwordHashingQueueCapacity = 100;
+
+    private Duration passwordHashingRetryAfter = Duration.ofSeconds(1);
+
+    /**
+     * DataSource 를 감싸서 요청별 SQL 문 수를 센다 (SqlStatementCountingConfig).
+     */
+    private boolean sqlStatementCounting;
+
 }
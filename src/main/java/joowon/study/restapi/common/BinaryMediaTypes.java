@@ -0,0 +1,18 @@
+package joowon.study.restapi.common;
+
+import org.springframework.http.MediaType;
+
+/**
+ * 서비스 간 호출에 쓰는 바이너리 표현. 구조는 HAL JSON 과 같다. (_links, _embedded, page)
+ */
+public final class BinaryMediaTypes {
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType(APPLICATION_CBOR_VALUE);
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private BinaryMediaTypes() {
+    }
+}
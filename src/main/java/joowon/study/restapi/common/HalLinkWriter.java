@@ -0,0 +1,100 @@
+package joowon.study.restapi.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.hateoas.Link;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jackson2HalModule 과 같은 모양으로 "_links" 를 쓴다.
+ * rel 이 하나면 객체, 여러개면 배열로 쓰고 값이 없는 속성은 생략한다. (curie 는 쓰지 않는다)
+ */
+public final class HalLinkWriter {
+
+    public static final SerializedString LINKS = new SerializedString("_links");
+
+    private static final SerializedString HREF = new SerializedString("href");
+    private static final SerializedString TEMPLATED = new SerializedString("templated");
+    private static final SerializedString HREFLANG = new SerializedString("hreflang");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString DEPRECATION = new SerializedString("deprecation");
+
+    private HalLinkWriter() {
+    }
+
+    /**
+     * 링크가 없으면 "_links" 자체를 쓰지 않는다.
+     */
+    public static void writeLinks(List<Link> links, JsonGenerator gen) throws IOException {
+        if (links.isEmpty()) {
+            return;
+        }
+        gen.writeFieldName(LINKS);
+        gen.writeStartObject();
+        if (hasDistinctRels(links)) {
+            for (Link link : links) {
+                gen.writeFieldName(link.getRel());
+                writeLink(link, gen);
+            }
+        } else {
+            Map<String, List<Link>> byRel = new LinkedHashMap<>();
+            links.forEach(l -> byRel.computeIfAbsent(l.getRel(), r -> new ArrayList<>()).add(l));
+            for (Map.Entry<String, List<Link>> entry : byRel.entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                if (entry.getValue().size() == 1) {
+                    writeLink(entry.getValue().get(0), gen);
+                } else {
+                    gen.writeStartArray();
+                    for (Link link : entry.getValue()) {
+                        writeLink(link, gen);
+                    }
+                    gen.writeEndArray();
+                }
+            }
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeLink(Link link, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(HREF);
+        gen.writeString(link.getHref());
+        writeIfPresent(HREFLANG, link.getHreflang(), gen);
+        writeIfPresent(TITLE, link.getTitle(), gen);
+        writeIfPresent(TYPE, link.getType(), gen);
+        writeIfPresent(DEPRECATION, link.getDeprecation(), gen);
+        if (link.isTemplated()) {
+            gen.writeFieldName(TEMPLATED);
+            gen.writeBoolean(true);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeIfPresent(SerializedString name, String value, JsonGenerator gen) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        }
+    }
+
+    /**
+     * 대부분의 응답은 rel 이 모두 달라서 Map 으로 묶지 않고 바로 쓴다.
+     */
+    private static boolean hasDistinctRels(List<Link> links) {
+        for (int i = 1; i < links.size(); i++) {
+            String rel = links.get(i).getRel();
+            for (int j = 0; j < i; j++) {
+                if (rel.equals(links.get(j).getRel())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
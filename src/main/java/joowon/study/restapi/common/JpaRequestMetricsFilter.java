@@ -0,0 +1,41 @@
+package joowon.study.restapi.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청이 끝나면 JpaRequestStatistics 를 method, uri(매핑 패턴) 태그로 기록한다.
+ * /oauth/token 처럼 WebMvc 인터셉터가 붙지 않는 엔드포인트도 잡기 위해 필터로 둔다.
+ */
+public class JpaRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public JpaRequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            JpaRequestStatistics statistics = JpaRequestStatistics.find(request);
+            if (statistics != null) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+                this.meterRegistry.summary("jpa.request.queries", tags).record(statistics.getQueries());
+                this.meterRegistry.summary("jpa.request.entity.loads", tags).record(statistics.getEntityLoads());
+                this.meterRegistry.summary("jpa.request.flushes", tags).record(statistics.getFlushes());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package joowon.study.restapi.common;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.ServletRequest;
+
+/**
+ * 요청 하나에서 Hibernate 가 실행한 쿼리, 엔티티 로딩, flush 횟수.
+ * request attribute 에 담아두고 JpaRequestStatisticsInterceptor 가 세고 JpaRequestMetricsFilter 가 기록한다.
+ */
+public class JpaRequestStatistics {
+
+    private static final String ATTRIBUTE = JpaRequestStatistics.class.getName();
+
+    private int queries;
+    private int entityLoads;
+    private int flushes;
+
+    /**
+     * 현재 스레드에 요청이 있으면 그 요청의 통계를, 없으면(비동기 스레드, 배치) null 을 돌려준다.
+     */
+    public static JpaRequestStatistics current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        JpaRequestStatistics statistics = (JpaRequestStatistics) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (statistics == null) {
+            statistics = new JpaRequestStatistics();
+            attributes.setAttribute(ATTRIBUTE, statistics, RequestAttributes.SCOPE_REQUEST);
+        }
+        return statistics;
+    }
+
+    public static JpaRequestStatistics find(ServletRequest request) {
+        return (JpaRequestStatistics) request.getAttribute(ATTRIBUTE);
+    }
+
+    void query() {
+        this.queries++;
+    }
+
+    void entityLoad() {
+        this.entityLoads++;
+    }
+
+    void flush() {
+        this.flushes++;
+    }
+
+    public int getQueries() {
+        return queries;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public int getFlushes() {
+        return flushes;
+    }
+}
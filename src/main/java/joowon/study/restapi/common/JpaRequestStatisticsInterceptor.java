@@ -0,0 +1,39 @@
+package joowon.study.restapi.common;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+/**
+ * 세션마다 만들어지는 Hibernate 인터셉터 (hibernate.session_factory.session_scoped_interceptor).
+ * 세션이 열릴 때의 요청에 쿼리, 엔티티 로딩, flush 횟수를 더한다.
+ */
+public class JpaRequestStatisticsInterceptor extends EmptyInterceptor {
+
+    private final transient JpaRequestStatistics statistics = JpaRequestStatistics.current();
+
+    @Override
+    public String onPrepareStatement(String sql) {
+        if (this.statistics != null) {
+            this.statistics.query();
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        if (this.statistics != null) {
+            this.statistics.entityLoad();
+        }
+        return false;
+    }
+
+    @Override
+    public void preFlush(Iterator entities) {
+        if (this.statistics != null) {
+            this.statistics.flush();
+        }
+    }
+}
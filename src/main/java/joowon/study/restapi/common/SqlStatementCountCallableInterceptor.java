@@ -0,0 +1,34 @@
+package joowon.study.restapi.common;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * StreamingResponseBody 처럼 비동기 스레드에서 실행하는 부분의 SQL 도 그 요청의 기록에 센다.
+ * 요청 스레드의 기록을 요청 속성으로 넘겨서 비동기 스레드가 이어서 쓰고, 끝나면 스레드에서 뗀다.
+ */
+public class SqlStatementCountCallableInterceptor implements CallableProcessingInterceptor {
+
+    private static final String ATTRIBUTE = SqlStatementCountCallableInterceptor.class.getName() + ".counts";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        request.setAttribute(ATTRIBUTE, SqlStatementCounts.current(), RequestAttributes.SCOPE_REQUEST);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object counts = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (counts instanceof SqlStatementCounts) {
+            SqlStatementCounts.resumeRequest((SqlStatementCounts) counts);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        SqlStatementCounts.finishRequest();
+    }
+}
@@ -0,0 +1,25 @@
+package joowon.study.restapi.common;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청 시작 때 SQL 문 수를 초기화하고, 끝나면 SqlStatementCounts.lastRequest() 로 남긴다.
+ */
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounts.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounts.finishRequest();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package joowon.study.restapi.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 스레드(요청)별로 실행된 SQL 문 수. JDBC 로 실행한 횟수를 세므로 배치 한번은 1 로 센다.
+ * StatementCountingDataSource 가 기록하고, SqlStatementCountFilter 가 요청마다 초기화한다.
+ * startRequest 와 finishRequest 사이에서만 기록한다. 요청을 받지 않는 스레드(스케줄러, 배치 저장 등)에는 아무것도 쌓지 않는다.
+ */
+public class SqlStatementCounts {
+
+    public enum Type {
+        SELECT, INSERT, UPDATE, DELETE, OTHER
+    }
+
+    private static final ThreadLocal<SqlStatementCounts> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<SqlStatementCounts> LAST_REQUEST = ThreadLocal.withInitial(SqlStatementCounts::new);
+
+    private final int[] counts = new int[Type.values().length];
+    private final List<String> statements = new ArrayList<>();
+
+    /**
+     * 진행 중인 요청의 기록. 요청 밖이면 빈 기록을 준다.
+     */
+    public static SqlStatementCounts current() {
+        SqlStatementCounts counts = CURRENT.get();
+        return counts != null ? counts : new SqlStatementCounts();
+    }
+
+    /**
+     * 현재 스레드에서 마지막으로 끝난 요청의 기록.
+     */
+    public static SqlStatementCounts lastRequest() {
+        return LAST_REQUEST.get();
+    }
+
+    public static void startRequest() {
+        CURRENT.set(new SqlStatementCounts());
+    }
+
+    /**
+     * 다른 스레드에서 시작한 요청의 기록에 이어서 센다. (비동기 처리, SqlStatementCountCallableInterceptor)
+     */
+    public static void resumeRequest(SqlStatementCounts counts) {
+        CURRENT.set(counts);
+    }
+
+    public static void finishRequest() {
+        LAST_REQUEST.set(current());
+        CURRENT.remove();
+    }
+
+    static void record(String sql) {
+        SqlStatementCounts counts = CURRENT.get();
+        if (counts == null) {
+            return;
+        }
+        // 요청 스레드와 비동기 스레드가 같은 기록을 쓸 수 있다
+        synchronized (counts) {
+            counts.counts[typeOf(sql).ordinal()]++;
+            counts.statements.add(sql);
+        }
+    }
+
+    public int get(Type type) {
+        return this.counts[type.ordinal()];
+    }
+
+    public int total() {
+        return this.statements.size();
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(this.statements);
+    }
+
+    static Type typeOf(String sql) {
+        if (sql == null) {
+            return Type.OTHER;
+        }
+        String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (trimmed.startsWith("select") || trimmed.startsWith("with")) {
+            return Type.SELECT;
+        }
+        if (trimmed.startsWith("insert")) {
+            return Type.INSERT;
+        }
+        if (trimmed.startsWith("update")) {
+            return Type.UPDATE;
+        }
+        if (trimmed.startsWith("delete")) {
+            return Type.DELETE;
+        }
+        return Type.OTHER;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Type type : Type.values()) {
+            sb.append(type.name().toLowerCase(Locale.ROOT)).append('=').append(get(type)).append(' ');
+        }
+        this.statements.forEach(s -> sb.append(System.lineSeparator()).append("  ").append(s.strip()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package joowon.study.restapi.common;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * DataSource -> Connection -> Statement 를 감싸서 실행되는 SQL 을 SqlStatementCounts 에 기록하는 프록시.
+ * unwrap/isWrapperFor 는 원래 객체로 넘겨서 HikariDataSource 를 꺼내 쓰는 코드는 그대로 동작한다.
+ */
+public class StatementCountingDataSource {
+
+    private StatementCountingDataSource() {
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection ? wrapConnection((Connection) result) : result;
+        });
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (!(result instanceof Statement)) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            return wrapStatement(method.getReturnType(), (Statement) result, sql);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Statement wrapStatement(Class<?> type, Statement statement, String preparedSql) {
+        Class<? extends Statement> iface = CallableStatement.class.isAssignableFrom(type) ? CallableStatement.class
+                : PreparedStatement.class.isAssignableFrom(type) ? PreparedStatement.class
+                : Statement.class;
+        String[] batchSql = new String[1];
+        return proxy((Class<Statement>) iface, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                batchSql[0] = (String) args[0];
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                SqlStatementCounts.record(preparedSql != null ? preparedSql : batchSql[0]);
+            } else if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                SqlStatementCounts.record(sql);
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private interface Handler<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> iface, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "unwrap":
+                case "isWrapperFor":
+                case "hashCode":
+                case "toString":
+                    return invoke(target, method, args);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return handler.invoke(target, method, args);
+            }
+        };
+        return (T) Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package joowon.study.restapi.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * bcrypt 해싱을 전용 스레드 풀에서만 실행하는 PasswordEncoder.
+ * 로그인이 몰려도 해싱에 쓰는 스레드 수와 대기열이 제한되고,
+ * 대기열이 가득 차면 기다리지 않고 {@link PasswordHashingRejectedException} 을 던진다.
+ */
+public class AdmissionControlledPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration retryAfter;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public AdmissionControlledPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration retryAfter) {
+        this.delegate = delegate;
+        this.retryAfter = retryAfter;
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread thread = new Thread(r, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> this.delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> this.delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public long getHashCount() {
+        return this.hashCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount.sum();
+    }
+
+    /**
+     * 해싱에 걸린 시간의 합. 대기열에서 기다린 시간은 빠진다.
+     */
+    public Duration getTotalHashTime() {
+        return Duration.ofNanos(this.hashNanos.sum());
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = this.executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    this.hashNanos.add(System.nanoTime() - start);
+                    this.hashCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.rejectedCount.increment();
+            throw new PasswordHashingRejectedException(this.retryAfter);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -11,22 +11,61 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.LdapShaPasswordEncoder;
+import org.springframework.security.crypto.password.Md4PasswordEncoder;
+import org.springframework.security.crypto.password.MessageDigestPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.password.StandardPasswordEncoder;
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
 
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 @Configuration
 public class AppConfig {
 
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
     @Bean
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public PasswordEncoder passwordEncoder(AppProperties appProperties) {
+        return new AdmissionControlledPasswordEncoder(delegatingPasswordEncoder(appProperties.getBcryptStrength()),
+                appProperties.getPasswordHashingThreads(),
+                appProperties.getPasswordHashingQueueCapacity(),
+                appProperties.getPasswordHashingRetryAfter());
+    }
+
+    /**
+     * PasswordEncoderFactories.createDelegatingPasswordEncoder() 와 같은 id 들을 두고 bcrypt 만 cost 를 설정에서 읽는다.
+     * 다른 id 로 저장된 비밀번호도 계속 확인할 수 있고, 새로 저장하는 비밀번호는 bcrypt 로 만든다.
+     */
+    @SuppressWarnings("deprecation")
+    static PasswordEncoder delegatingPasswordEncoder(int bcryptStrength) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("ldap", new LdapShaPasswordEncoder());
+        encoders.put("MD4", new Md4PasswordEncoder());
+        encoders.put("MD5", new MessageDigestPasswordEncoder("MD5"));
+        encoders.put("noop", NoOpPasswordEncoder.getInstance());
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+        encoders.put("scrypt", new SCryptPasswordEncoder());
+        encoders.put("SHA-1", new MessageDigestPasswordEncoder("SHA-1"));
+        encoders.put("SHA-256", new MessageDigestPasswordEncoder("SHA-256"));
+        encoders.put("sha256", new StandardPasswordEncoder());
+        return new DelegatingPasswordEncoder("bcrypt", encoders);
     }
 
     @Bean
@@ -3,6 +3,9 @@ package joowon.study.restapi.config;
 import joowon.study.restapi.accounts.AccountService;
 import joowon.study.restapi.common.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -12,6 +15,7 @@ import org.springframework.security.oauth2.config.annotation.web.configuration.E
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 
 @Configuration
 @EnableAuthorizationServer
@@ -32,6 +36,20 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
     @Autowired
     AppProperties appProperties;
 
+    @Autowired(required = false)
+    JwtAccessTokenConverter accessTokenConverter;
+
+    /**
+     * 시큐리티 필터 체인보다 먼저 실행되도록 순서를 앞에 둔다.
+     */
+    @Bean
+    public FilterRegistrationBean<PasswordHashingRejectedFilter> passwordHashingRejectedFilter() {
+        FilterRegistrationBean<PasswordHashingRejectedFilter> registration = new FilterRegistrationBean<>(new PasswordHashingRejectedFilter());
+        registration.addUrlPatterns("/oauth/token");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
     @Override
     public void configure(AuthorizationServerSecurityConfigurer security) throws Exception {
         security.passwordEncoder(passwordEncoder);
@@ -52,6 +70,10 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
     public void configure(AuthorizationServerEndpointsConfigurer endpoints) throws Exception {
         endpoints.authenticationManager(authenticationManager)
                 .userDetailsService(accountService)
-                .tokenStore(tokenStore);
+                .tokenStore(tokenStore)
+                .exceptionTranslator(new TokenEndpointExceptionTranslator());
+        if (accessTokenConverter != null) {
+            endpoints.accessTokenConverter(accessTokenConverter);
+        }
     }
 }
@@ -0,0 +1,389 @@
+package joowon.study.restapi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * InMemoryTokenStore 대체.
+ * <ul>
+ *     <li>ConcurrentHashMap 만 사용해서 동시에 들어오는 /oauth/token 요청이 하나의 락에 줄서지 않는다.</li>
+ *     <li>만료 시간 순으로 정렬된 인덱스를 두고, 백그라운드 스레드가 주기적으로 만료된 토큰을 지운다.</li>
+ *     <li>토큰 수가 최대치를 넘으면 가장 먼저 만료될 토큰부터 지운다.</li>
+ * </ul>
+ */
+public class BoundedInMemoryTokenStore implements TokenStore, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedInMemoryTokenStore.class);
+
+    private final ConcurrentMap<String, AccessEntry> accessTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> authenticationToAccessToken = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> userNameToAccessTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> clientIdToAccessTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RefreshEntry> refreshTokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> refreshTokenToAccessToken = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<Expiry> accessTokenExpiries = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Expiry> refreshTokenExpiries = new ConcurrentSkipListSet<>();
+
+    private final AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+
+    private final int maximumSize;
+    private final ScheduledExecutorService sweeper;
+
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder sweepCount = new LongAdder();
+    private volatile Duration lastSweepDuration = Duration.ZERO;
+
+    public BoundedInMemoryTokenStore(int maximumSize, Duration sweepInterval) {
+        this.maximumSize = maximumSize;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = sweepInterval.toMillis();
+        this.sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        AccessEntry entry = this.accessTokens.get(token);
+        return entry == null ? null : entry.authentication;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        String value = token.getValue();
+        AccessEntry entry = new AccessEntry(token, authentication,
+                this.authenticationKeyGenerator.extractKey(authentication));
+
+        AccessEntry previous = this.accessTokens.put(value, entry);
+        if (previous != null) {
+            unindex(value, previous);
+        }
+        this.authenticationToAccessToken.put(entry.authenticationKey, value);
+        if (!authentication.isClientOnly()) {
+            addToIndex(this.userNameToAccessTokens, entry.approvalKey, value);
+        }
+        addToIndex(this.clientIdToAccessTokens, entry.clientId, value);
+        if (entry.refreshTokenValue != null) {
+            this.refreshTokenToAccessToken.put(entry.refreshTokenValue, value);
+        }
+        this.accessTokenExpiries.add(new Expiry(entry.expiresAt, value));
+
+        evict(this.accessTokens, this.accessTokenExpiries, this::removeAccessToken);
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        AccessEntry entry = this.accessTokens.get(tokenValue);
+        return entry == null ? null : entry.token;
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        removeAccessToken(token.getValue());
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        String value = refreshToken.getValue();
+        RefreshEntry entry = new RefreshEntry(refreshToken, authentication);
+        RefreshEntry previous = this.refreshTokens.put(value, entry);
+        if (previous != null) {
+            this.refreshTokenExpiries.remove(new Expiry(previous.expiresAt, value));
+        }
+        this.refreshTokenExpiries.add(new Expiry(entry.expiresAt, value));
+
+        evict(this.refreshTokens, this.refreshTokenExpiries, this::removeRefreshToken);
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        RefreshEntry entry = this.refreshTokens.get(tokenValue);
+        return entry == null ? null : entry.token;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        RefreshEntry entry = this.refreshTokens.get(token.getValue());
+        return entry == null ? null : entry.authentication;
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        removeRefreshToken(token.getValue());
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        String accessTokenValue = this.refreshTokenToAccessToken.remove(refreshToken.getValue());
+        if (accessTokenValue != null) {
+            removeAccessToken(accessTokenValue);
+        }
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        String key = this.authenticationKeyGenerator.extractKey(authentication);
+        String value = this.authenticationToAccessToken.get(key);
+        AccessEntry entry = value == null ? null : this.accessTokens.get(value);
+        if (entry == null) {
+            return null;
+        }
+        if (!key.equals(this.authenticationKeyGenerator.extractKey(entry.authentication))) {
+            // InMemoryTokenStore 와 같이 인증 정보가 바뀌었으면 다시 저장한다
+            storeAccessToken(entry.token, authentication);
+        }
+        return entry.token;
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        return findTokens(this.userNameToAccessTokens.get(approvalKey(clientId, userName)));
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return findTokens(this.clientIdToAccessTokens.get(clientId));
+    }
+
+    /**
+     * 만료된 토큰을 지운다. 만료 시간 순으로 정렬되어 있어서 만료된 만큼만 확인한다.
+     */
+    public void sweep() {
+        try {
+            long start = System.nanoTime();
+            long now = System.currentTimeMillis();
+            int removed = sweep(this.accessTokenExpiries, now, this::removeAccessToken)
+                    + sweep(this.refreshTokenExpiries, now, this::removeRefreshToken);
+            this.expiredCount.add(removed);
+            this.sweepCount.increment();
+            this.lastSweepDuration = Duration.ofNanos(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            // 예외가 나가면 스케줄이 멈추므로 삼킨다
+            log.warn("Failed to sweep expired tokens", e);
+        }
+    }
+
+    public int getAccessTokenCount() {
+        return this.accessTokens.size();
+    }
+
+    public int getRefreshTokenCount() {
+        return this.refreshTokens.size();
+    }
+
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    public long getExpiredCount() {
+        return this.expiredCount.sum();
+    }
+
+    public long getSweepCount() {
+        return this.sweepCount.sum();
+    }
+
+    public Duration getLastSweepDuration() {
+        return this.lastSweepDuration;
+    }
+
+    @Override
+    public void destroy() {
+        this.sweeper.shutdownNow();
+    }
+
+    private boolean removeAccessToken(String value) {
+        AccessEntry entry = this.accessTokens.remove(value);
+        if (entry == null) {
+            return false;
+        }
+        unindex(value, entry);
+        return true;
+    }
+
+    private boolean removeRefreshToken(String value) {
+        RefreshEntry entry = this.refreshTokens.remove(value);
+        this.refreshTokenToAccessToken.remove(value);
+        if (entry == null) {
+            return false;
+        }
+        this.refreshTokenExpiries.remove(new Expiry(entry.expiresAt, value));
+        return true;
+    }
+
+    private void unindex(String value, AccessEntry entry) {
+        this.authenticationToAccessToken.remove(entry.authenticationKey, value);
+        removeFromIndex(this.userNameToAccessTokens, entry.approvalKey, value);
+        removeFromIndex(this.clientIdToAccessTokens, entry.clientId, value);
+        if (entry.refreshTokenValue != null) {
+            this.refreshTokenToAccessToken.remove(entry.refreshTokenValue, value);
+        }
+        this.accessTokenExpiries.remove(new Expiry(entry.expiresAt, value));
+    }
+
+    private void evict(ConcurrentMap<String, ?> tokens, ConcurrentSkipListSet<Expiry> expiries, Predicate<String> remover) {
+        while (tokens.size() > this.maximumSize) {
+            Expiry first = expiries.pollFirst();
+            if (first == null) {
+                return;
+            }
+            if (remover.test(first.value)) {
+                this.evictionCount.increment();
+            }
+        }
+    }
+
+    private static int sweep(ConcurrentSkipListSet<Expiry> expiries, long now, Predicate<String> remover) {
+        int removed = 0;
+        Iterator<Expiry> iterator = expiries.iterator();
+        while (iterator.hasNext()) {
+            Expiry expiry = iterator.next();
+            if (expiry.expiresAt > now) {
+                break;
+            }
+            iterator.remove();
+            if (remover.test(expiry.value)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static void addToIndex(ConcurrentMap<String, Set<String>> index, String key, String value) {
+        index.compute(key, (k, values) -> {
+            Set<String> set = values == null ? ConcurrentHashMap.newKeySet() : values;
+            set.add(value);
+            return set;
+        });
+    }
+
+    private static void removeFromIndex(ConcurrentMap<String, Set<String>> index, String key, String value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    private Collection<OAuth2AccessToken> findTokens(Set<String> values) {
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        List<OAuth2AccessToken> tokens = values.stream()
+                .map(this::readAccessToken)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return Collections.unmodifiableList(tokens);
+    }
+
+    private static String approvalKey(OAuth2Authentication authentication) {
+        String userName = authentication.getUserAuthentication() == null ? "" : authentication.getUserAuthentication().getName();
+        return approvalKey(authentication.getOAuth2Request().getClientId(), userName);
+    }
+
+    private static String approvalKey(String clientId, String userName) {
+        return clientId + (userName == null ? "" : ":" + userName);
+    }
+
+    private static long expiresAt(Date expiration) {
+        return expiration == null ? Long.MAX_VALUE : expiration.getTime();
+    }
+
+    private static class AccessEntry {
+        final OAuth2AccessToken token;
+        final OAuth2Authentication authentication;
+        final String authenticationKey;
+        final String approvalKey;
+        final String clientId;
+        final String refreshTokenValue;
+        final long expiresAt;
+
+        AccessEntry(OAuth2AccessToken token, OAuth2Authentication authentication, String authenticationKey) {
+            this.token = token;
+            this.authentication = authentication;
+            this.authenticationKey = authenticationKey;
+            this.approvalKey = approvalKey(authentication);
+            this.clientId = authentication.getOAuth2Request().getClientId();
+            this.refreshTokenValue = token.getRefreshToken() == null ? null : token.getRefreshToken().getValue();
+            this.expiresAt = expiresAt(token.getExpiration());
+        }
+    }
+
+    private static class RefreshEntry {
+        final OAuth2RefreshToken token;
+        final OAuth2Authentication authentication;
+        final long expiresAt;
+
+        RefreshEntry(OAuth2RefreshToken token, OAuth2Authentication authentication) {
+            this.token = token;
+            this.authentication = authentication;
+            this.expiresAt = token instanceof ExpiringOAuth2RefreshToken
+                    ? expiresAt(((ExpiringOAuth2RefreshToken) token).getExpiration())
+                    : Long.MAX_VALUE;
+        }
+    }
+
+    private static class Expiry implements Comparable<Expiry> {
+        final long expiresAt;
+        final String value;
+
+        Expiry(long expiresAt, String value) {
+            this.expiresAt = expiresAt;
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Expiry other) {
+            int result = Long.compare(this.expiresAt, other.expiresAt);
+            return result != 0 ? result : this.value.compareTo(other.value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Expiry)) {
+                return false;
+            }
+            Expiry other = (Expiry) o;
+            return this.expiresAt == other.expiresAt && this.value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.expiresAt, this.value);
+        }
+    }
+}
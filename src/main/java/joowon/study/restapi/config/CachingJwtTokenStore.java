@@ -0,0 +1,36 @@
+package joowon.study.restapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.time.Duration;
+
+/**
+ * 같은 토큰으로 반복해서 들어오는 요청은 서명 검증과 claim 파싱을 다시 하지 않는다.
+ * 검증에 실패한 토큰은 캐시하지 않는다.
+ */
+public class CachingJwtTokenStore extends JwtTokenStore {
+
+    private final Cache<String, OAuth2AccessToken> accessTokens;
+    private final Cache<String, OAuth2Authentication> authentications;
+
+    public CachingJwtTokenStore(JwtAccessTokenConverter jwtTokenEnhancer, long maximumSize, Duration ttl) {
+        super(jwtTokenEnhancer);
+        this.accessTokens = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+        this.authentications = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        return this.accessTokens.get(tokenValue, super::readAccessToken);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        return this.authentications.get(token, super::readAuthentication);
+    }
+}
@@ -0,0 +1,61 @@
+package joowon.study.restapi.config;
+
+import joowon.study.restapi.accounts.AccountService;
+import joowon.study.restapi.common.AppProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.provider.token.DefaultAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.DefaultUserAuthenticationConverter;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+
+/**
+ * my-app.token-store=jwt 일 때 사용하는 토큰 설정.
+ * 인증 서버는 RSA 키로 서명한 JWT 를 발급하고, 리소스 서버는 저장소 조회 없이 서명만 검증한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "my-app", name = "token-store", havingValue = "jwt")
+public class JwtTokenConfig {
+
+    private static final Duration CLAIMS_CACHE_TTL = Duration.ofMinutes(10);
+
+    @Bean
+    public JwtAccessTokenConverter accessTokenConverter(AppProperties appProperties,
+                                                        AccountService accountService) throws NoSuchAlgorithmException {
+        // 토큰의 user_name 으로 AccountAdapter 를 만들어야 @CurrentUser 가 동작한다
+        DefaultUserAuthenticationConverter userTokenConverter = new DefaultUserAuthenticationConverter();
+        userTokenConverter.setUserDetailsService(accountService);
+        DefaultAccessTokenConverter tokenConverter = new DefaultAccessTokenConverter();
+        tokenConverter.setUserTokenConverter(userTokenConverter);
+
+        JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+        converter.setAccessTokenConverter(tokenConverter);
+        converter.setKeyPair(keyPair(appProperties));
+        return converter;
+    }
+
+    @Bean
+    public TokenStore tokenStore(JwtAccessTokenConverter accessTokenConverter, AppProperties appProperties) {
+        return new CachingJwtTokenStore(accessTokenConverter, appProperties.getJwtClaimsCacheSize(), CLAIMS_CACHE_TTL);
+    }
+
+    /**
+     * 키스토어가 없으면 임시 키를 만든다. 이 경우 재시작하거나 다른 인스턴스로 가면 토큰을 검증할 수 없다.
+     */
+    private KeyPair keyPair(AppProperties appProperties) throws NoSuchAlgorithmException {
+        if (appProperties.getJwtKeyStore() == null) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+        return new KeyStoreKeyFactory(appProperties.getJwtKeyStore(), appProperties.getJwtKeyStorePassword().toCharArray())
+                .getKeyPair(appProperties.getJwtKeyAlias());
+    }
+}
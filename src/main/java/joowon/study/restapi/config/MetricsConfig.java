@@ -0,0 +1,139 @@
+package joowon.study.restapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import joowon.study.restapi.common.JpaRequestMetricsFilter;
+import joowon.study.restapi.events.EnrollmentService;
+import joowon.study.restapi.events.EventResponseCache;
+import joowon.study.restapi.events.EventStatusScheduler;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 액추에이터 기본 메트릭(http.server.requests, hibernate, hikaricp) 외에 추가로 등록하는 메트릭.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public FilterRegistrationBean<JpaRequestMetricsFilter> jpaRequestMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<JpaRequestMetricsFilter> registration = new FilterRegistrationBean<>(new JpaRequestMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder tokenStoreMetrics(TokenStore tokenStore) {
+        return registry -> {
+            if (!(tokenStore instanceof BoundedInMemoryTokenStore)) {
+                return;
+            }
+            BoundedInMemoryTokenStore store = (BoundedInMemoryTokenStore) tokenStore;
+            Gauge.builder("oauth2.token.store.size", store, BoundedInMemoryTokenStore::getAccessTokenCount)
+                    .tag("type", "access")
+                    .register(registry);
+            Gauge.builder("oauth2.token.store.size", store, BoundedInMemoryTokenStore::getRefreshTokenCount)
+                    .tag("type", "refresh")
+                    .register(registry);
+            FunctionCounter.builder("oauth2.token.store.evictions", store, BoundedInMemoryTokenStore::getEvictionCount)
+                    .register(registry);
+            FunctionCounter.builder("oauth2.token.store.expired", store, BoundedInMemoryTokenStore::getExpiredCount)
+                    .register(registry);
+            FunctionCounter.builder("oauth2.token.store.sweeps", store, BoundedInMemoryTokenStore::getSweepCount)
+                    .register(registry);
+            TimeGauge.builder("oauth2.token.store.sweep.duration", store, TimeUnit.NANOSECONDS,
+                    s -> s.getLastSweepDuration().toNanos())
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordEncoder passwordEncoder) {
+        return registry -> {
+            if (!(passwordEncoder instanceof AdmissionControlledPasswordEncoder)) {
+                return;
+            }
+            AdmissionControlledPasswordEncoder encoder = (AdmissionControlledPasswordEncoder) passwordEncoder;
+            Gauge.builder("password.hashing.queue", encoder, AdmissionControlledPasswordEncoder::getQueueDepth)
+                    .register(registry);
+            Gauge.builder("password.hashing.active", encoder, AdmissionControlledPasswordEncoder::getActiveCount)
+                    .register(registry);
+            FunctionCounter.builder("password.hashing.rejected", encoder, AdmissionControlledPasswordEncoder::getRejectedCount)
+                    .register(registry);
+            FunctionTimer.builder("password.hashing", encoder,
+                    AdmissionControlledPasswordEncoder::getHashCount,
+                    e -> e.getTotalHashTime().toNanos(), TimeUnit.NANOSECONDS)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder eventResponseCacheMetrics(EventResponseCache eventResponseCache) {
+        return registry -> {
+            FunctionCounter.builder("event.response.cache.requests", eventResponseCache, EventResponseCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("event.response.cache.requests", eventResponseCache, EventResponseCache::getStaleHitCount)
+                    .tag("result", "stale")
+                    .register(registry);
+            FunctionCounter.builder("event.response.cache.requests", eventResponseCache, EventResponseCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("event.response.cache.requests", eventResponseCache, EventResponseCache::getBypassCount)
+                    .tag("result", "bypass")
+                    .register(registry);
+            Gauge.builder("event.response.cache.size", eventResponseCache, EventResponseCache::getSizeInBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder eventStatusSchedulerMetrics(EventStatusScheduler eventStatusScheduler) {
+        return registry -> {
+            Gauge.builder("event.status.pending", eventStatusScheduler, EventStatusScheduler::getPendingCount)
+                    .register(registry);
+            // 모집 시작 일시부터 BEGAN_ENROLLMENT 로 바뀔 때까지 걸린 시간
+            FunctionTimer.builder("event.status.transitions", eventStatusScheduler,
+                    EventStatusScheduler::getTransitionCount,
+                    s -> s.getTotalTransitionLag().toNanos(), TimeUnit.NANOSECONDS)
+                    .register(registry);
+            TimeGauge.builder("event.status.lag", eventStatusScheduler, TimeUnit.NANOSECONDS,
+                    s -> s.getLastLag().toNanos())
+                    .register(registry);
+            FunctionCounter.builder("event.status.failures", eventStatusScheduler, EventStatusScheduler::getFailureCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder enrollmentMetrics(EnrollmentService enrollmentService) {
+        return registry -> {
+            FunctionCounter.builder("enrollment.requests", enrollmentService, EnrollmentService::getEnrolledCount)
+                    .tag("result", "enrolled")
+                    .register(registry);
+            FunctionCounter.builder("enrollment.requests", enrollmentService, EnrollmentService::getRejectedCount)
+                    .tag("result", "rejected")
+                    .register(registry);
+            // 자리를 잡고 아직 저장하지 않은 신청
+            Gauge.builder("enrollment.pending", enrollmentService, EnrollmentService::getPendingCount)
+                    .register(registry);
+            FunctionCounter.builder("enrollment.persisted", enrollmentService, EnrollmentService::getPersistedCount)
+                    .register(registry);
+            FunctionCounter.builder("enrollment.dropped", enrollmentService, EnrollmentService::getDroppedCount)
+                    .register(registry);
+            FunctionCounter.builder("enrollment.failures", enrollmentService, EnrollmentService::getFailureCount)
+                    .register(registry);
+        };
+    }
+}
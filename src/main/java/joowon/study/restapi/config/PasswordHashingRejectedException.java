@@ -0,0 +1,40 @@
+package joowon.study.restapi.config;
+
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+import java.time.Duration;
+
+/**
+ * 해싱 대기열이 가득 차서 요청을 받지 않았을 때. /oauth/token 에서 503 과 Retry-After 로 응답한다.
+ */
+public class PasswordHashingRejectedException extends OAuth2Exception {
+
+    private final Duration retryAfter;
+
+    public PasswordHashingRejectedException(Duration retryAfter) {
+        super("Too many concurrent logins, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Retry-After 헤더 값. 초 단위로 올림하고 최소 1초.
+     */
+    public String getRetryAfterHeader() {
+        long seconds = (retryAfter.toMillis() + 999) / 1000;
+        return String.valueOf(Math.max(1, seconds));
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+        return "temporarily_unavailable";
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+        return 503;
+    }
+}
@@ -0,0 +1,48 @@
+package joowon.study.restapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 클라이언트 인증(client secret 확인)은 TokenEndpoint 앞의 시큐리티 필터에서 일어나서
+ * TokenEndpointExceptionTranslator 까지 오지 않는다. 여기서 받아서 같은 503 응답으로 바꾼다.
+ */
+public class PasswordHashingRejectedFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            PasswordHashingRejectedException rejected = findRejected(e);
+            if (rejected == null || response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            response.setStatus(rejected.getHttpErrorCode());
+            response.setHeader(HttpHeaders.RETRY_AFTER, rejected.getRetryAfterHeader());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+            this.objectMapper.writeValue(response.getOutputStream(), rejected);
+        }
+    }
+
+    private static PasswordHashingRejectedException findRejected(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PasswordHashingRejectedException) {
+                return (PasswordHashingRejectedException) t;
+            }
+        }
+        return null;
+    }
+}
@@ -1,5 +1,8 @@
 package joowon.study.restapi.config;
 
+import joowon.study.restapi.accounts.AccountRole;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -23,6 +26,8 @@ public class ResourcesServerConfig extends ResourceServerConfigurerAdapter {
                 .and()
             .authorizeRequests()
             .mvcMatchers(HttpMethod.GET, "/api/**").permitAll()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+            .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(AccountRole.ADMIN.name())
             .anyRequest().authenticated()
                 .and()
             .exceptionHandling()
@@ -1,7 +1,9 @@
 package joowon.study.restapi.config;
 
 import joowon.study.restapi.accounts.AccountService;
+import joowon.study.restapi.common.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,7 +16,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.token.TokenStore;
-import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
 
 @Configuration
 @EnableWebSecurity
@@ -27,8 +28,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     PasswordEncoder passwordEncoder;
 
     @Bean
-    public TokenStore tokenStore() {
-        return new InMemoryTokenStore();
+    @ConditionalOnProperty(prefix = "my-app", name = "token-store", havingValue = "in-memory", matchIfMissing = true)
+    public TokenStore tokenStore(AppProperties appProperties) {
+        return new BoundedInMemoryTokenStore(appProperties.getTokenStoreMaximumSize(),
+                appProperties.getTokenStoreSweepInterval());
     }
 
     @Bean
@@ -0,0 +1,53 @@
+package joowon.study.restapi.config;
+
+import joowon.study.restapi.common.SqlStatementCountCallableInterceptor;
+import joowon.study.restapi.common.SqlStatementCountFilter;
+import joowon.study.restapi.common.StatementCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * my-app.sql-statement-counting=true 이면 DataSource 를 감싸서 요청별 SQL 문 수를 센다. 테스트에서 켠다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "my-app", name = "sql-statement-counting", havingValue = "true")
+public class SqlStatementCountingConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ? StatementCountingDataSource.wrap((DataSource) bean) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementCountFilter> sqlStatementCountFilter() {
+        FilterRegistrationBean<SqlStatementCountFilter> registration = new FilterRegistrationBean<>(new SqlStatementCountFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * StreamingResponseBody 를 실행하는 비동기 스레드도 같은 요청으로 센다.
+     */
+    @Bean
+    public WebMvcConfigurer sqlStatementCountAsyncConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(new SqlStatementCountCallableInterceptor());
+            }
+        };
+    }
+}
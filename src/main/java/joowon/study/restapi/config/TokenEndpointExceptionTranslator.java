@@ -0,0 +1,25 @@
+package joowon.study.restapi.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
+
+/**
+ * TokenEndpoint 에서 사용자 비밀번호 확인이 거절되면 503 응답에 Retry-After 를 붙인다.
+ */
+public class TokenEndpointExceptionTranslator extends DefaultWebResponseExceptionTranslator {
+
+    @Override
+    public ResponseEntity<OAuth2Exception> translate(Exception e) throws Exception {
+        ResponseEntity<OAuth2Exception> response = super.translate(e);
+        if (!(response.getBody() instanceof PasswordHashingRejectedException)) {
+            return response;
+        }
+        PasswordHashingRejectedException rejected = (PasswordHashingRejectedException) response.getBody();
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set(HttpHeaders.RETRY_AFTER, rejected.getRetryAfterHeader());
+        return new ResponseEntity<>(rejected, headers, response.getStatusCode());
+    }
+}
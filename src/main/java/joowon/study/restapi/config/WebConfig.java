@@ -0,0 +1,110 @@
+package joowon.study.restapi.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import joowon.study.restapi.common.BinaryMediaTypes;
+import joowon.study.restapi.events.EventResponseCache;
+import joowon.study.restapi.events.EventResponseCacheFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.hateoas.core.DelegatingRelProvider;
+import org.springframework.hateoas.hal.CurieProvider;
+import org.springframework.hateoas.hal.HalConfiguration;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * application/cbor, application/x-jackson-smile 컨버터를 HAL 용으로 바꾼다.
+ * 스프링 MVC 가 클래스패스를 보고 넣어주는 기본 컨버터는 HAL 모듈 없이 Jackson2ObjectMapperBuilder.cbor()/smile() 로 만들어져서 교체한다.
+ * 부트가 설정한 ObjectMapperBuilder 에 HAL 모듈을 붙여서 @JsonComponent serializer, 날짜 형식, _links 모양이 HAL JSON 과 같다.
+ * 익명 이벤트 조회 응답 캐시 필터도 여기서 등록한다.
+ * 이벤트 응답은 Accept 에 따라 본문과 ETag 가 다르므로 캐시 필터를 거치지 않는 응답에도 Vary: Accept 를 붙인다.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+    private final ObjectProvider<DelegatingRelProvider> relProvider;
+    private final ObjectProvider<CurieProvider> curieProvider;
+    private final ObjectProvider<HalConfiguration> halConfiguration;
+    private final MessageSourceAccessor linkRelationMessageSource;
+
+    public WebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                     ObjectProvider<DelegatingRelProvider> relProvider,
+                     ObjectProvider<CurieProvider> curieProvider,
+                     ObjectProvider<HalConfiguration> halConfiguration,
+                     MessageSourceAccessor linkRelationMessageSource) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.relProvider = relProvider;
+        this.curieProvider = curieProvider;
+        this.halConfiguration = halConfiguration;
+        this.linkRelationMessageSource = linkRelationMessageSource;
+    }
+
+    /**
+     * 익명 여부를 SecurityContext 로 판단하므로 스프링 시큐리티 필터 바로 뒤에 둔다.
+     */
+    @Bean
+    public FilterRegistrationBean<EventResponseCacheFilter> eventResponseCacheFilter(EventResponseCache eventResponseCache) {
+        FilterRegistrationBean<EventResponseCacheFilter> registration = new FilterRegistrationBean<>(new EventResponseCacheFilter(eventResponseCache));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        registration.addUrlPatterns("/api/events", "/api/events/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // 캐시 필터가 쓰는 응답은 필터가 Accept-Encoding, Authorization 까지 넣어서 덮어쓴다
+                response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/events", "/api/events/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(withHal(new MappingJackson2CborHttpMessageConverter(), new CBORFactory()));
+        converters.add(withHal(new MappingJackson2SmileHttpMessageConverter(), new SmileFactory()));
+    }
+
+    private AbstractJackson2HttpMessageConverter withHal(AbstractJackson2HttpMessageConverter converter, JsonFactory factory) {
+        converter.setObjectMapper(halObjectMapper(factory));
+        // Jackson 컨버터 기본값인 UTF-8 이 바이너리 Content-Type 에 charset 으로 붙지 않게 한다
+        converter.setDefaultCharset(null);
+        return converter;
+    }
+
+    ObjectMapper halObjectMapper(JsonFactory factory) {
+        ObjectMapper objectMapper = this.objectMapperBuilder.getObject().factory(factory).build();
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                this.relProvider.getObject(),
+                this.curieProvider.getIfAvailable(),
+                this.linkRelationMessageSource,
+                this.halConfiguration.getIfAvailable(HalConfiguration::new)));
+        return objectMapper;
+    }
+}
@@ -0,0 +1,31 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 이벤트 참가 신청. EnrollmentService 가 자리를 잡은 뒤에 묶어서 저장한다.
+ * 쌓아두었다가 한번에 INSERT 하고 이벤트를 지워도 기록은 남기도록 연관 대신 id 만 가진다.
+ * (event_id, account_id) 유니크 제약이 중복 신청을 막는 마지막 방어선이고, 이벤트별로 읽는 인덱스도 된다.
+ */
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Getter @Setter @EqualsAndHashCode(of = "id")
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_enrollment_event_account", columnNames = {"eventId", "accountId"}))
+public class Enrollment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enrollment_seq")
+    @SequenceGenerator(name = "enrollment_seq", sequenceName = "enrollment_seq", allocationSize = 50)
+    @JsonIgnore
+    private Integer id;
+    @Column(nullable = false)
+    private Integer eventId;
+    @Column(nullable = false)
+    private Integer accountId;
+    @Column(nullable = false)
+    private LocalDateTime enrolledAt;
+}
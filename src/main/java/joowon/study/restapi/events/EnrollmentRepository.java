@@ -0,0 +1,18 @@
+package joowon.study.restapi.events;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Integer> {
+
+    /**
+     * 이벤트에 신청한 계정 id. 기동한 뒤 처음 신청이 들어올 때 EnrollmentSeats 를 채운다.
+     */
+    @Query("select e.accountId from Enrollment e where e.eventId = :eventId")
+    List<Integer> findAccountIds(@Param("eventId") Integer eventId);
+
+    long countByEventId(Integer eventId);
+}
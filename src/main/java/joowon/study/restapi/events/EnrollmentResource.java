@@ -0,0 +1,13 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.ApiLinks;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+public class EnrollmentResource extends Resource<Enrollment> {
+
+    public EnrollmentResource(Enrollment enrollment, Link... links) {
+        super(enrollment, links);
+        add(ApiLinks.eventSelf(enrollment.getEventId()).withRel("event"));
+    }
+}
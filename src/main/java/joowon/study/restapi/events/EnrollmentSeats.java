@@ -0,0 +1,107 @@
+package joowon.study.restapi.events;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * 이벤트별 자리 장부. 락 없이 신청을 받으면서 limitOfEnrollment 를 넘겨서 받지 않는다.
+ * <p>
+ * 이벤트마다 잡힌 자리 수(AtomicInteger)와 신청한 계정 집합을 둔다. 계정을 먼저 집합에 넣어서 중복 신청을 거르고,
+ * 잡힌 수가 한도보다 작을 때만 CAS 로 하나 늘린다. 한도에 닿으면 CAS 없이 읽기만 하고 거절하므로 마감 뒤에 몰리는 요청은 서로 다투지 않는다.
+ * 계정 집합은 ConcurrentHashMap 이라 같은 이벤트라도 계정마다 다른 칸을 잠근다.
+ * <p>
+ * 처음 찾는 이벤트는 loader 로 이미 신청한 계정을 읽어서 채운다. 그래서 재시작하면 DB 에 저장된 신청부터 다시 센다.
+ * 같은 이벤트를 동시에 처음 찾으면 한 스레드만 읽고 나머지는 기다린다.
+ */
+final class EnrollmentSeats {
+
+    /**
+     * BACKLOGGED 는 장부가 아니라 EnrollmentService 가 저장 대기열이 밀렸을 때 자리를 잡지 않고 돌려준다.
+     */
+    enum Reservation {
+        ENROLLED, ALREADY_ENROLLED, FULL, BACKLOGGED
+    }
+
+    private final IntFunction<Collection<Integer>> loader;
+    private final ConcurrentHashMap<Integer, Seats> seats = new ConcurrentHashMap<>();
+
+    EnrollmentSeats(IntFunction<Collection<Integer>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * limit 은 신청할 때의 limitOfEnrollment 다. 한도를 줄여도 이미 잡힌 자리는 그대로 두고 새 신청만 막는다.
+     */
+    Reservation reserve(int eventId, int accountId, int limit) {
+        return seats(eventId).reserve(accountId, limit);
+    }
+
+    /**
+     * 저장하지 못한 신청의 자리를 돌려준다.
+     */
+    void release(int eventId, int accountId) {
+        Seats seats = this.seats.get(eventId);
+        if (seats != null) {
+            seats.release(accountId);
+        }
+    }
+
+    int taken(int eventId) {
+        return seats(eventId).taken.get();
+    }
+
+    /**
+     * 장부에서 뺀다. 다음에 찾으면 DB 에서 다시 읽는다.
+     */
+    void evict(int eventId) {
+        this.seats.remove(eventId);
+    }
+
+    int size() {
+        return this.seats.size();
+    }
+
+    private Seats seats(int eventId) {
+        Seats seats = this.seats.get(eventId);
+        if (seats != null) {
+            return seats;
+        }
+        return this.seats.computeIfAbsent(eventId, id -> new Seats(this.loader.apply(id)));
+    }
+
+    private static final class Seats {
+
+        private final AtomicInteger taken;
+        private final Set<Integer> accounts = ConcurrentHashMap.newKeySet();
+
+        Seats(Collection<Integer> accountIds) {
+            this.accounts.addAll(accountIds);
+            this.taken = new AtomicInteger(this.accounts.size());
+        }
+
+        Reservation reserve(int accountId, int limit) {
+            if (!this.accounts.add(accountId)) {
+                return Reservation.ALREADY_ENROLLED;
+            }
+            for (;;) {
+                int taken = this.taken.get();
+                if (taken >= limit) {
+                    this.accounts.remove(accountId);
+                    return Reservation.FULL;
+                }
+                if (this.taken.compareAndSet(taken, taken + 1)) {
+                    return Reservation.ENROLLED;
+                }
+            }
+        }
+
+        void release(int accountId) {
+            if (this.accounts.remove(accountId)) {
+                this.taken.decrementAndGet();
+            }
+        }
+    }
+}
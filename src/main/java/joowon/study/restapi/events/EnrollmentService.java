@@ -0,0 +1,200 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.AppProperties;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 이벤트 참가 신청. 자리는 메모리 장부(EnrollmentSeats)에서 바로 잡고 저장은 나중에 묶어서 한다.
+ * <p>
+ * 신청이 몰려도 요청 스레드는 DB 를 기다리지 않는다. 자리를 잡은 신청은 대기열에 넣고,
+ * 백그라운드 스레드가 flush-interval 마다 batch-size 개씩 saveAll 로 INSERT 한다. (hibernate.jdbc.batch_size 로 묶인다)
+ * 묶음 저장이 실패하면 하나씩 다시 저장한다. (event_id, account_id) 유니크 제약에 걸린 신청은 이미 저장된 신청이 그 자리를 갖고 있으므로
+ * 버리기만 하고, 다른 제약(NOT NULL, 길이 등)에 걸린 신청은 다시 해도 실패하므로 버리면서 자리를 돌려준다.
+ * DB 장애 같은 다른 예외면 남은 신청을 다음 flush 에 다시 시도한다. 대기열이 max-pending 을 넘으면 자리를 잡지 않고 BACKLOGGED 로 거절한다.
+ * <p>
+ * 장부는 이벤트를 처음 찾을 때 DB 에서 채우므로 재시작하면 저장된 신청부터 다시 센다.
+ * 종료할 때는 대기열을 비우고 내려가지만, 프로세스가 갑자기 죽으면 아직 저장하지 않은 신청은 잃는다.
+ * 장부가 프로세스 안에 있으므로 서버 한 대를 전제로 한다.
+ */
+@Service
+public class EnrollmentService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentService.class);
+    private static final String UNIQUE_CONSTRAINT = "uk_enrollment_event_account";
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentSeats seats;
+    private final int batchSize;
+    private final int maxPending;
+    private final BlockingQueue<Enrollment> pending = new LinkedBlockingQueue<>();
+    private final ScheduledExecutorService writer;
+
+    private final LongAdder enrolledCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder persistedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+
+    public EnrollmentService(EnrollmentRepository enrollmentRepository, AppProperties appProperties) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.seats = new EnrollmentSeats(enrollmentRepository::findAccountIds);
+        this.batchSize = appProperties.getEnrollmentBatchSize();
+        this.maxPending = appProperties.getEnrollmentMaxPending();
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "enrollment-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = appProperties.getEnrollmentFlushInterval().toMillis();
+        this.writer.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 자리를 잡으면 저장 대기열에 넣는다. 모집 기간인지는 호출하는 쪽에서 확인한다.
+     * 대기열 크기는 확인한 뒤에 넣으므로 동시에 들어온 요청 수만큼 max-pending 을 넘을 수 있다.
+     */
+    public EnrollmentSeats.Reservation enroll(Event event, Enrollment enrollment) {
+        if (this.pending.size() >= this.maxPending) {
+            this.rejectedCount.increment();
+            return EnrollmentSeats.Reservation.BACKLOGGED;
+        }
+        EnrollmentSeats.Reservation reservation = this.seats.reserve(event.getId(), enrollment.getAccountId(),
+                event.getLimitOfEnrollment());
+        if (reservation == EnrollmentSeats.Reservation.ENROLLED) {
+            this.enrolledCount.increment();
+            this.pending.add(enrollment);
+        } else {
+            this.rejectedCount.increment();
+        }
+        return reservation;
+    }
+
+    public int getTakenSeats(Integer eventId) {
+        return this.seats.taken(eventId);
+    }
+
+    /**
+     * 이벤트가 삭제되면 장부에서 뺀다.
+     */
+    public void evict(Integer eventId) {
+        this.seats.evict(eventId);
+    }
+
+    /**
+     * 대기열이 빌 때까지 저장한다. 다시 시도할 신청이 남으면 멈춘다.
+     */
+    public synchronized void flush() {
+        List<Enrollment> batch = new ArrayList<>(this.batchSize);
+        while (this.pending.drainTo(batch, this.batchSize) > 0) {
+            if (!persist(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 예외가 나가면 스케줄이 멈추므로 삼킨다
+            this.failureCount.increment();
+            log.error("Failed to flush enrollments, {} pending", this.pending.size(), e);
+        }
+    }
+
+    private boolean persist(List<Enrollment> batch) {
+        try {
+            this.enrollmentRepository.saveAll(batch);
+            this.persistedCount.add(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            this.failureCount.increment();
+            log.warn("Failed to save {} enrollments in a batch, retrying one by one", batch.size(), e);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Enrollment enrollment = batch.get(i);
+            // 롤백된 묶음에서 받은 id 를 지워야 새로 INSERT 한다
+            enrollment.setId(null);
+            try {
+                this.enrollmentRepository.save(enrollment);
+                this.persistedCount.increment();
+            } catch (DataIntegrityViolationException e) {
+                this.droppedCount.increment();
+                if (isDuplicate(e)) {
+                    log.debug("Dropped duplicate enrollment of account {} in event {}", enrollment.getAccountId(), enrollment.getEventId());
+                } else {
+                    this.seats.release(enrollment.getEventId(), enrollment.getAccountId());
+                    log.error("Dropped enrollment of account {} in event {} and released the seat",
+                            enrollment.getAccountId(), enrollment.getEventId(), e);
+                }
+            } catch (RuntimeException e) {
+                this.failureCount.increment();
+                this.pending.addAll(batch.subList(i, batch.size()));
+                log.error("Failed to save enrollments, {} pending will be retried", this.pending.size(), e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDuplicate(DataIntegrityViolationException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException) {
+                String constraint = ((ConstraintViolationException) t).getConstraintName();
+                return constraint != null && constraint.toLowerCase().contains(UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public long getEnrolledCount() {
+        return this.enrolledCount.sum();
+    }
+
+    /**
+     * 자리가 없거나, 이미 신청했거나, 대기열이 밀려서 거절한 수
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount.sum();
+    }
+
+    public long getPersistedCount() {
+        return this.persistedCount.sum();
+    }
+
+    /**
+     * 제약 조건에 걸려서 버린 신청 수
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    public long getFailureCount() {
+        return this.failureCount.sum();
+    }
+
+    @Override
+    public void destroy() {
+        this.writer.shutdownNow();
+        flushQuietly();
+    }
+}
@@ -1,19 +1,36 @@
 package joowon.study.restapi.events;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import joowon.study.restapi.accounts.Account;
-import joowon.study.restapi.accounts.AccountSerializer;
+import joowon.study.restapi.accounts.AccountIdSerializer;
 import lombok.*;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
-@Builder @AllArgsConstructor @NoArgsConstructor
+@Builder(toBuilder = true) @AllArgsConstructor @NoArgsConstructor
 @Getter @Setter @EqualsAndHashCode(of = "id")
 @Entity
+@EntityListeners(EventChangeListener.class)
+@Table(indexes = {
+        @Index(name = "idx_event_name_id", columnList = "name, id"),
+        @Index(name = "idx_event_begin_enrollment_id", columnList = "beginEnrollmentDateTime, id"),
+        @Index(name = "idx_event_begin_event_id", columnList = "beginEventDateTime, id"),
+        @Index(name = "idx_event_base_price_id", columnList = "basePrice, id"),
+        @Index(name = "idx_event_max_price_id", columnList = "maxPrice, id"),
+        @Index(name = "idx_event_status_begin_event", columnList = "eventStatus, beginEventDateTime"),
+        @Index(name = "idx_event_status_begin_enrollment", columnList = "eventStatus, beginEnrollmentDateTime"),
+        @Index(name = "idx_event_manager_begin_event", columnList = "manager_id, beginEventDateTime"),
+        @Index(name = "idx_event_free_offline_begin_event", columnList = "free, offline, beginEventDateTime")
+})
 public class Event {
 
-    @Id @GeneratedValue
+    // pooled 옵티마이저: 시퀀스를 50 개 단위로 한번만 읽는다
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+    @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
     private Integer id;
     private String name;
     private String description;
@@ -30,10 +47,40 @@ public class Event {
     @Enumerated(EnumType.STRING)
     private EventStatus eventStatus = EventStatus.DRAFT;
 
-    @ManyToOne
-    @JsonSerialize(using = AccountSerializer.class)
+    @Version
+    @JsonIgnore
+    private Integer version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private Account manager;
 
+    // 조회나 응답에는 id 만 필요하므로 Account 를 읽지 않고 FK 값을 그대로 쓴다
+    @Column(name = "manager_id", insertable = false, updatable = false)
+    @JsonProperty("manager")
+    @JsonSerialize(using = AccountIdSerializer.class)
+    private Integer managerId;
+
+    public void setManager(Account manager) {
+        this.manager = manager;
+        this.managerId = manager == null ? null : manager.getId();
+    }
+
+    public boolean isManagedBy(Account account) {
+        return account != null && this.managerId != null && this.managerId.equals(account.getId());
+    }
+
+    /**
+     * 모집 기간은 EventIntervalIndex, /api/events/enrolling 과 같이 양 끝을 포함한다. 마감 일시 그 순간까지 신청할 수 있다.
+     */
+    public boolean isEnrollingAt(LocalDateTime now) {
+        if (this.eventStatus != EventStatus.BEGAN_ENROLLMENT && this.eventStatus != EventStatus.PUBLISHED) {
+            return false;
+        }
+        return (this.beginEnrollmentDateTime == null || !now.isBefore(this.beginEnrollmentDateTime))
+                && (this.closeEnrollmentDateTime == null || !now.isAfter(this.closeEnrollmentDateTime));
+    }
+
     public void update() {
 
         // update free
@@ -50,4 +97,13 @@ public class Event {
             this.offline = true;
         }
     }
+
+    public static class EventBuilder {
+
+        public EventBuilder manager(Account manager) {
+            this.manager = manager;
+            this.managerId = manager == null ? null : manager.getId();
+            return this;
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package joowon.study.restapi.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.validation.Errors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 이벤트 일괄 생성 결과. 생성된 이벤트와 요청 순서(index)별 에러를 함께 담는다.
+ */
+@Getter
+public class EventBatchResource extends ResourceSupport {
+
+    private final List<EventResource> events = new ArrayList<>();
+
+    private final List<ItemErrors> errors = new ArrayList<>();
+
+    @Getter @AllArgsConstructor
+    public static class ItemErrors {
+
+        private int index;
+
+        private Errors errors;
+    }
+}
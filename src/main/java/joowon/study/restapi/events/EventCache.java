@@ -0,0 +1,59 @@
+package joowon.study.restapi.events;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import joowon.study.restapi.accounts.Account;
+import joowon.study.restapi.common.AppProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * EventRepository.findById 앞단의 캐시. 크기와 TTL 로 비운다.
+ * 캐시된 객체를 여러 요청이 함께 쓰지 않도록 넣을 때와 꺼낼 때 복사한다.
+ */
+@Component
+public class EventCache {
+
+    private final EventRepository eventRepository;
+    private final Cache<Integer, Event> cache;
+
+    public EventCache(EventRepository eventRepository, AppProperties appProperties) {
+        this.eventRepository = eventRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(appProperties.getEventCacheMaximumSize())
+                .expireAfterWrite(appProperties.getEventCacheTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 읽는 동안 evict 가 오면 읽기가 끝날 때까지 기다렸다가 지우므로, 수정 전에 읽은 이벤트가 캐시에 남지 않는다.
+     */
+    public Optional<Event> findById(Integer id) {
+        Event cached = this.cache.get(id, key -> this.eventRepository.findById(key).map(this::detach).orElse(null));
+        return cached == null ? Optional.empty() : Optional.of(cached.toBuilder().build());
+    }
+
+    public void evict(Integer id) {
+        this.cache.invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    public long size() {
+        return this.cache.estimatedSize();
+    }
+
+    /**
+     * 세션 밖에서 lazy loading 이 일어나지 않도록 manager 프록시를 id 만 가진 Account 로 바꿔서 담는다.
+     * 권한 확인과 응답에는 managerId 만 쓰고, 저장(merge)할 때도 id 만 있으면 된다.
+     */
+    private Event detach(Event event) {
+        Account manager = event.getManagerId() == null ? null : Account.builder().id(event.getManagerId()).build();
+        return event.toBuilder().manager(manager).build();
+    }
+}
@@ -0,0 +1,68 @@
+package joowon.study.restapi.events;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 이벤트가 저장, 수정, 삭제되면 익명 응답 캐시를 비우고, 삭제되면 메모리 색인(검색, 기간)과 상태 변경 예약, 참가 자리 장부에서도 뺀다.
+ * (생성, 수정은 EventController 가 색인한다)
+ * 커밋 전에 다른 요청이 예전 값을 다시 담을 수 있어서 트랜잭션이 끝날 때 한번 더 비운다.
+ * 하이버네이트가 스프링 빈 컨테이너로 만들기 때문에 생성자 주입을 받는다. (JPQL 벌크 수정은 여기를 거치지 않는다)
+ */
+public class EventChangeListener {
+
+    private final ObjectProvider<EventResponseCache> responseCache;
+    private final ObjectProvider<EventSearchIndex> searchIndex;
+    private final ObjectProvider<EventIntervalIndex> intervalIndex;
+    private final ObjectProvider<EventStatusScheduler> statusScheduler;
+    private final ObjectProvider<EnrollmentService> enrollmentService;
+
+    public EventChangeListener(ObjectProvider<EventResponseCache> responseCache,
+                               ObjectProvider<EventSearchIndex> searchIndex,
+                               ObjectProvider<EventIntervalIndex> intervalIndex,
+                               ObjectProvider<EventStatusScheduler> statusScheduler,
+                               ObjectProvider<EnrollmentService> enrollmentService) {
+        this.responseCache = responseCache;
+        this.searchIndex = searchIndex;
+        this.intervalIndex = intervalIndex;
+        this.statusScheduler = statusScheduler;
+        this.enrollmentService = enrollmentService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Event event) {
+        this.responseCache.ifAvailable(cache -> {
+            cache.invalidateAll();
+            invalidateAfterCompletion(cache);
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Event event) {
+        onChange(event);
+        this.searchIndex.ifAvailable(index -> index.remove(event.getId()));
+        this.intervalIndex.ifAvailable(index -> index.remove(event.getId()));
+        this.statusScheduler.ifAvailable(scheduler -> scheduler.cancel(event.getId()));
+        this.enrollmentService.ifAvailable(service -> service.evict(event.getId()));
+    }
+
+    private static void invalidateAfterCompletion(EventResponseCache cache) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(cache)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(cache, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+                cache.invalidateAll();
+            }
+        });
+    }
+}
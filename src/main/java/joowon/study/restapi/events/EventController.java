@@ -2,38 +2,91 @@ package joowon.study.restapi.events;
 
 import joowon.study.restapi.accounts.Account;
 import joowon.study.restapi.accounts.CurrentUser;
+import joowon.study.restapi.common.ApiLinks;
+import joowon.study.restapi.common.BinaryMediaTypes;
 import joowon.study.restapi.common.ErrorsResource;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.mvc.ControllerLinkBuilder;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import java.net.URI;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import java.util.stream.Collectors;
 
 @Controller
-@RequestMapping(value = "/api/events", produces = MediaTypes.HAL_JSON_UTF8_VALUE)
+@RequestMapping(value = "/api/events", produces = {
+        MediaTypes.HAL_JSON_UTF8_VALUE, BinaryMediaTypes.APPLICATION_CBOR_VALUE, BinaryMediaTypes.APPLICATION_SMILE_VALUE})
 public class EventController {
 
+    private static final int BATCH_LIMIT = 1000;
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final int RESULT_WINDOW = 10_000;
+
     private final EventRepository eventRepository;
-    private final ModelMapper modelMapper;
+    private final EventMapper eventMapper;
     private final EventValidator eventValidator;
+    private final EventCache eventCache;
+    private final SpringValidatorAdapter beanValidator;
+    private final EventExporter eventExporter;
+    private final EventCountEstimator eventCountEstimator;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventIntervalIndex eventIntervalIndex;
+    private final EventStatusScheduler eventStatusScheduler;
+    private final EnrollmentService enrollmentService;
+    private final Clock clock;
 
-    public EventController(EventRepository eventRepository, ModelMapper modelMapper, EventValidator eventValidator) {
+    public EventController(EventRepository eventRepository, EventMapper eventMapper, EventValidator eventValidator,
+                           EventCache eventCache, Validator validator, EventExporter eventExporter,
+                           EventCountEstimator eventCountEstimator, EventSearchIndex eventSearchIndex,
+                           EventIntervalIndex eventIntervalIndex, EventStatusScheduler eventStatusScheduler,
+                           EnrollmentService enrollmentService, Clock clock) {
         this.eventRepository = eventRepository;
-        this.modelMapper = modelMapper;
+        this.eventMapper = eventMapper;
         this.eventValidator = eventValidator;
+        this.eventCache = eventCache;
+        this.beanValidator = new SpringValidatorAdapter(validator);
+        this.eventExporter = eventExporter;
+        this.eventCountEstimator = eventCountEstimator;
+        this.eventSearchIndex = eventSearchIndex;
+        this.eventIntervalIndex = eventIntervalIndex;
+        this.eventStatusScheduler = eventStatusScheduler;
+        this.enrollmentService = enrollmentService;
+        this.clock = clock;
     }
 
     @PostMapping
@@ -49,61 +102,373 @@ public class EventController {
             return badRequest(errors);
         }
 
-        Event event = modelMapper.map(eventDto, Event.class);
+        Event event = eventMapper.toEvent(eventDto);
         event.update();
         event.setManager(currentUser);
         Event newEvent = this.eventRepository.save(event);
+        this.eventCache.evict(newEvent.getId());
+        track(newEvent);
 
-        ControllerLinkBuilder selfLinkBuilder = linkTo(EventController.class).slash(newEvent.getId());
-        URI createdUri = selfLinkBuilder.toUri();
+        URI createdUri = URI.create(ApiLinks.eventHref(newEvent.getId()));
         EventResource eventResource = new EventResource(event);
-        eventResource.add(linkTo(EventController.class).withRel("query-events"));
-        eventResource.add(selfLinkBuilder.withRel("update-event"));
-        eventResource.add(new Link("/docs/index.html#resources-events-create").withRel("profile"));
-        return ResponseEntity.created(createdUri).body(eventResource);
+        eventResource.add(ApiLinks.queryEvents());
+        eventResource.add(ApiLinks.updateEvent(newEvent.getId()));
+        eventResource.add(ApiLinks.profile("resources-events-create"));
+        return ResponseEntity.created(createdUri).eTag(negotiated(EventETags.of(newEvent, true))).body(eventResource);
+    }
+
+    /**
+     * 여러 이벤트를 한번에 생성한다. 검증에 실패한 항목은 index 와 함께 에러로 알려주고 나머지만 저장한다.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity createEvents(@RequestBody List<EventDto> eventDtos,
+                                       @CurrentUser Account currentUser) {
+        EventBatchResource batchResource = new EventBatchResource();
+        if (eventDtos.size() > BATCH_LIMIT) {
+            Errors errors = new MapBindingResult(new HashMap<>(), "eventDtos");
+            errors.reject("tooMany", "A batch can contain at most " + BATCH_LIMIT + " events");
+            return badRequest(errors);
+        }
+
+        List<Event> events = new ArrayList<>(eventDtos.size());
+        for (int i = 0; i < eventDtos.size(); i++) {
+            EventDto eventDto = eventDtos.get(i);
+            if (eventDto == null) {
+                Errors errors = new MapBindingResult(new HashMap<>(), "eventDto");
+                errors.reject("wrongValue", "Event is null");
+                batchResource.getErrors().add(new EventBatchResource.ItemErrors(i, errors));
+                continue;
+            }
+            Errors errors = new BeanPropertyBindingResult(eventDto, "eventDto");
+            this.beanValidator.validate(eventDto, errors);
+            if (!errors.hasErrors()) {
+                this.eventValidator.validate(eventDto, errors);
+            }
+            if (errors.hasErrors()) {
+                batchResource.getErrors().add(new EventBatchResource.ItemErrors(i, errors));
+                continue;
+            }
+
+            Event event = eventMapper.toEvent(eventDto);
+            event.update();
+            event.setManager(currentUser);
+            events.add(event);
+        }
+
+        // hibernate.jdbc.batch_size 단위로 INSERT 가 묶인다
+        this.eventRepository.saveAll(events).forEach(e -> {
+            track(e);
+            batchResource.getEvents().add(new EventResource(e));
+        });
+
+        batchResource.add(ApiLinks.queryEvents());
+        batchResource.add(ApiLinks.profile("resources-events-batch"));
+        if (events.isEmpty()) {
+            return ResponseEntity.badRequest().body(batchResource);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(batchResource);
     }
 
     @GetMapping
     public ResponseEntity queryEvents(Pageable pageable,
                                       PagedResourcesAssembler<Event> assembler,
+                                      EventSearch search,
+                                      @RequestParam(required = false) String after,
+                                      @RequestParam(required = false) String before,
+                                      @RequestParam(defaultValue = "EXACT") EventPageTotal total,
+                                      WebRequest webRequest,
                                       @CurrentUser Account account) {
-        Page<Event> page = this.eventRepository.findAll(pageable);
-        var pagedResources = assembler.toResource(page, e -> new EventResource(e));
-        pagedResources.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
+        if (search.isManagerMe() && account == null) {
+            return new ResponseEntity(HttpStatus.UNAUTHORIZED);
+        }
+
+        Specification<Event> spec;
+        try {
+            spec = search.toSpecification(account);
+        } catch (IllegalArgumentException e) {
+            return badSearch();
+        }
+
+        if (after != null || before != null) {
+            return queryEventsByCursor(spec, pageable, after, before, webRequest, account);
+        }
+
+        // overlaps 만 있으면 SQL 대신 구간 색인에서 찾는다 (시작 일시 순서)
+        // RESULT_WINDOW 뒤를 정렬 없는 SQL 로 읽으면 순서가 이어지지 않으므로 /search, /enrolling 처럼 거절한다
+        if (search.isOverlapsOnly() && pageable.getSort().isUnsorted()) {
+            if (!withinResultWindow(pageable)) {
+                return tooManyResults();
+            }
+            EventWindow window = search.overlapsWindow();
+            EventIndexHits hits = this.eventIntervalIndex.overlaps(EventIntervalIndex.Period.EVENT,
+                    window.getFrom(), window.getTo(), (int) pageable.getOffset(), pageable.getPageSize());
+            // 색인은 개수를 정확히 알고 있으므로 ESTIMATED 도 EXACT 로 준다
+            EventPageTotal indexedTotal = total == EventPageTotal.ABSENT ? EventPageTotal.ABSENT : EventPageTotal.EXACT;
+            return indexedPage(hits, pageable, assembler, webRequest, account, "resources-events-list", indexedTotal);
+        }
+
+        Page<Event> page;
+        if (total == EventPageTotal.EXACT) {
+            page = this.eventRepository.findAll(spec, pageable);
+        } else {
+            Slice<Event> slice = this.eventRepository.findSlice(spec, pageable);
+            total = pageTotal(slice, total, search.hasFilter());
+            page = new PageImpl<>(slice.getContent(), pageable, totalElements(slice, total));
+        }
+        String eTag = negotiated(EventETags.of(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), total, account != null));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        var pagedResources = new EventPagedResources(assembler.toResource(page, e -> new EventResource(e)), total);
+        pagedResources.add(ApiLinks.profile("resources-events-list"));
+        if (account != null) {
+            pagedResources.add(ApiLinks.createEvent());
+        }
+        return ResponseEntity.ok().eTag(eTag).body(pagedResources);
+    }
+
+    /**
+     * 마지막 페이지까지 읽었으면 개수를 정확히 알 수 있다. 필터가 있으면 DB 통계로 추정할 수 없다.
+     */
+    private EventPageTotal pageTotal(Slice<Event> slice, EventPageTotal requested, boolean filtered) {
+        if (!slice.hasNext() && (slice.hasContent() || slice.getPageable().getOffset() == 0)) {
+            return EventPageTotal.EXACT;
+        }
+        return requested == EventPageTotal.ESTIMATED && !filtered ? EventPageTotal.ESTIMATED : EventPageTotal.ABSENT;
+    }
+
+    /**
+     * ABSENT 는 응답에 쓰지 않고 next 링크를 만드는 데만 쓴다.
+     */
+    private long totalElements(Slice<Event> slice, EventPageTotal total) {
+        long known = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        if (total == EventPageTotal.ESTIMATED) {
+            return Math.max(this.eventCountEstimator.estimate(), known);
+        }
+        return known;
+    }
+
+    /**
+     * name, description, location 에 검색어의 모든 단어가 들어있는 이벤트를 점수 순서로 조회한다.
+     * 메모리 색인(EventSearchIndex)에서 id 만 찾고 해당 페이지의 이벤트만 DB 에서 읽는다. sort 는 무시한다.
+     */
+    @GetMapping("/search")
+    public ResponseEntity searchEvents(@RequestParam(required = false) String q,
+                                       Pageable pageable,
+                                       PagedResourcesAssembler<Event> assembler,
+                                       WebRequest webRequest,
+                                       @CurrentUser Account account) {
+        if (q == null || q.isBlank()) {
+            Errors errors = new MapBindingResult(new HashMap<>(), "search");
+            errors.reject("wrongValue", "q is empty");
+            return badRequest(errors);
+        }
+        if (!withinResultWindow(pageable)) {
+            return tooManyResults();
+        }
+
+        EventIndexHits hits = this.eventSearchIndex.search(q, (int) pageable.getOffset(), pageable.getPageSize());
+        return indexedPage(hits, pageable, assembler, webRequest, account, "resources-events-search", EventPageTotal.EXACT);
+    }
+
+    /**
+     * 모집 기간이 지금을 포함하는 이벤트를 모집 시작 일시 순서로 조회한다. overlaps=from,to 를 주면 모집 기간이 그 사이와 겹치는 이벤트를 찾는다.
+     */
+    @GetMapping("/enrolling")
+    public ResponseEntity queryEnrollingEvents(@RequestParam(required = false) String overlaps,
+                                               Pageable pageable,
+                                               PagedResourcesAssembler<Event> assembler,
+                                               WebRequest webRequest,
+                                               @CurrentUser Account account) {
+        EventWindow window;
+        try {
+            window = overlaps == null ? EventWindow.at(LocalDateTime.now(this.clock)) : EventWindow.parse(overlaps);
+        } catch (IllegalArgumentException e) {
+            return badSearch();
+        }
+        if (!withinResultWindow(pageable)) {
+            return tooManyResults();
+        }
+
+        EventIndexHits hits = this.eventIntervalIndex.overlaps(EventIntervalIndex.Period.ENROLLMENT,
+                window.getFrom(), window.getTo(), (int) pageable.getOffset(), pageable.getPageSize());
+        return indexedPage(hits, pageable, assembler, webRequest, account, "resources-events-enrolling", EventPageTotal.EXACT);
+    }
+
+    /**
+     * 메모리 색인에서 찾은 id 순서대로 해당 페이지의 이벤트만 DB 에서 읽어서 목록 응답을 만든다.
+     */
+    private ResponseEntity indexedPage(EventIndexHits hits, Pageable pageable, PagedResourcesAssembler<Event> assembler,
+                                       WebRequest webRequest, Account account, String profile, EventPageTotal total) {
+        Map<Integer, Event> found = new HashMap<>();
+        this.eventRepository.findAllById(Arrays.stream(hits.getIds()).boxed().collect(Collectors.toList()))
+                .forEach(e -> found.put(e.getId(), e));
+        // 색인 순서대로 다시 세운다. 색인과 DB 사이에 지워진 이벤트는 빠진다
+        List<Event> events = Arrays.stream(hits.getIds())
+                .mapToObj(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Page<Event> page = new PageImpl<>(events, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()), hits.getTotal());
+        String eTag = negotiated(EventETags.of(events, page.getNumber(), page.getSize(), page.getTotalElements(), total, account != null));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        var pagedResources = new EventPagedResources(assembler.toResource(page, e -> new EventResource(e)), total);
+        pagedResources.add(ApiLinks.profile(profile));
         if (account != null) {
-            pagedResources.add(linkTo(EventController.class).withRel("create-event"));
+            pagedResources.add(ApiLinks.createEvent());
         }
-        return ResponseEntity.ok(pagedResources);
+        return ResponseEntity.ok().eTag(eTag).body(pagedResources);
+    }
+
+    /**
+     * 메모리 색인은 offset 만큼 건너뛰며 찾기 때문에 앞에서부터 RESULT_WINDOW 개까지만 조회할 수 있다.
+     */
+    private boolean withinResultWindow(Pageable pageable) {
+        return pageable.getOffset() + pageable.getPageSize() <= RESULT_WINDOW;
+    }
+
+    /**
+     * 저장한 이벤트를 메모리 색인과 상태 변경 예약에 반영한다. (삭제는 EventChangeListener)
+     */
+    private void track(Event event) {
+        this.eventSearchIndex.index(event);
+        this.eventIntervalIndex.index(event);
+        this.eventStatusScheduler.schedule(event);
+    }
+
+    /**
+     * 목록 조회와 같은 필터로 전체 이벤트를 NDJSON 으로 내려준다. 페이지 없이 DB 커서로 읽으면서 바로 쓴다.
+     * 응답 본문이 StreamingResponseBody 여야 하므로 에러는 본문 없이 상태 코드만 내려준다.
+     */
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEvents(EventSearch search,
+                                                              @CurrentUser Account account) {
+        if (search.isManagerMe() && account == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Specification<Event> spec;
+        try {
+            spec = search.toSpecification(account);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> this.eventExporter.export(spec, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    /**
+     * 키셋 페이징. after 가 빈 값이면 첫 페이지부터 읽는다.
+     */
+    private ResponseEntity queryEventsByCursor(Specification<Event> spec, Pageable pageable,
+                                               String after, String before, WebRequest webRequest, Account account) {
+        boolean forward = before == null;
+        EventCursor cursor;
+        try {
+            String encoded = forward ? after : before;
+            cursor = encoded.isEmpty() ? EventCursor.start(pageable.getSort()) : EventCursor.decode(encoded);
+        } catch (IllegalArgumentException e) {
+            Errors errors = new MapBindingResult(new HashMap<>(), "cursor");
+            errors.reject("wrongValue", "cursor is wrong");
+            return badRequest(errors);
+        }
+
+        Slice<Event> slice = this.eventRepository.findSlice(Specification.where(spec).and(cursor.seek(forward)),
+                PageRequest.of(0, pageable.getPageSize(), cursor.sort(forward)));
+        List<Event> events = new ArrayList<>(slice.getContent());
+        if (!forward) {
+            Collections.reverse(events);
+        }
+
+        boolean hasNext = !events.isEmpty() && (!forward || slice.hasNext());
+        boolean hasPrev = !events.isEmpty() && (forward ? !cursor.isStart() : slice.hasNext());
+        String eTag = negotiated(EventETags.of(events, hasNext, hasPrev, account != null));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        List<EventResource> content = events.stream().map(EventResource::new).collect(Collectors.toList());
+        Resources<EventResource> resources = new Resources<>(content, new Link(cursorLink(null, null)));
+        if (hasNext) {
+            String next = EventCursor.of(cursor, events.get(events.size() - 1)).encode();
+            resources.add(new Link(cursorLink("after", next), Link.REL_NEXT));
+        }
+        if (hasPrev) {
+            String prev = EventCursor.of(cursor, events.get(0)).encode();
+            resources.add(new Link(cursorLink("before", prev), Link.REL_PREVIOUS));
+        }
+        resources.add(ApiLinks.profile("resources-events-list"));
+        if (account != null) {
+            resources.add(ApiLinks.createEvent());
+        }
+        return ResponseEntity.ok().eTag(eTag).body(resources);
+    }
+
+    private String cursorLink(String name, String cursor) {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        ServletUriComponentsBuilder builder = ServletUriComponentsBuilder.fromCurrentRequestUri();
+        request.getParameterMap().forEach((key, values) -> builder.queryParam(key, (Object[]) values));
+        if (name != null) {
+            builder.replaceQueryParam("page")
+                    .replaceQueryParam("after")
+                    .replaceQueryParam("before")
+                    .replaceQueryParam(name, cursor);
+        }
+        return builder.encode().build().toUriString();
     }
 
     @GetMapping("/{id}")
     public ResponseEntity getEvent(@PathVariable Integer id,
+                                   WebRequest webRequest,
                                    @CurrentUser Account currentUser) {
-        Optional<Event> optionalEvent = this.eventRepository.findById(id);
+        Optional<Event> optionalEvent = this.eventCache.findById(id);
         if (optionalEvent.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
         Event event = optionalEvent.get();
+        boolean manager = event.isManagedBy(currentUser);
+        String eTag = negotiated(EventETags.of(event, manager));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         EventResource eventResource = new EventResource(event);
-        eventResource.add(new Link("/docs/index.html#resources-events-get").withRel("profile"));
-        if (event.getManager().equals(currentUser)) {
-            eventResource.add(linkTo(EventController.class).slash(event.getId()).withRel("update-event"));
+        eventResource.add(ApiLinks.profile("resources-events-get"));
+        if (manager) {
+            eventResource.add(ApiLinks.updateEvent(event.getId()));
         }
 
-        return ResponseEntity.ok(eventResource);
+        return ResponseEntity.ok().eTag(eTag).body(eventResource);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity updateEvent(@PathVariable Integer id,
                                       @RequestBody @Valid EventDto eventDto,
                                       Errors errors,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                       @CurrentUser Account currentUser) {
-        Optional<Event> optionalEvent = this.eventRepository.findById(id);
+        Optional<Event> optionalEvent = this.eventCache.findById(id);
         if (optionalEvent.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
+        // 담당자가 아니면 버전이 맞는지, 값이 올바른지 알려주지 않는다
+        Event existingEvent = optionalEvent.get();
+        if (!existingEvent.isManagedBy(currentUser)) {
+            return new ResponseEntity(HttpStatus.UNAUTHORIZED);
+        }
+
+        if (ifMatch != null && !EventETags.matches(ifMatch, existingEvent)) {
+            return new ResponseEntity(HttpStatus.PRECONDITION_FAILED);
+        }
+
         if (errors.hasErrors()) {
             return badRequest(errors);
         }
@@ -113,18 +478,90 @@ public class EventController {
             return badRequest(errors);
         }
 
-        Event existingEvent = optionalEvent.get();
-        if (!existingEvent.getManager().equals(currentUser)) {
+        this.eventMapper.update(eventDto, existingEvent);
+        Event savedEvent;
+        try {
+            savedEvent = this.eventRepository.save(existingEvent);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // 읽은 뒤에 다른 요청이 먼저 수정한 경우
+            this.eventCache.evict(id);
+            return new ResponseEntity(HttpStatus.PRECONDITION_FAILED);
+        }
+        this.eventCache.evict(savedEvent.getId());
+        track(savedEvent);
+
+        EventResource eventResource = new EventResource(savedEvent);
+        eventResource.add(ApiLinks.profile("resources-events-update"));
+
+        return ResponseEntity.ok().eTag(negotiated(EventETags.of(savedEvent, true))).body(eventResource);
+    }
+
+    /**
+     * 모집 중인 이벤트에 참가 신청한다. 자리는 바로 잡히고 저장은 EnrollmentService 가 묶어서 하므로 202 로 응답한다.
+     * 상태 변경(EventStatusScheduler)이 tick 만큼 늦을 수 있어서 PUBLISHED 라도 모집 기간이면 받는다.
+     */
+    @PostMapping("/{id}/enrollments")
+    public ResponseEntity enrollEvent(@PathVariable Integer id,
+                                      @CurrentUser Account currentUser) {
+        if (currentUser == null) {
             return new ResponseEntity(HttpStatus.UNAUTHORIZED);
         }
 
-        this.modelMapper.map(eventDto, existingEvent);
-        Event savedEvent = this.eventRepository.save(existingEvent);
+        Optional<Event> optionalEvent = this.eventCache.findById(id);
+        if (optionalEvent.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
 
-        EventResource eventResource = new EventResource(savedEvent);
-        eventResource.add(new Link("/docs/index.html#resources-events-update").withRel("profile"));
+        Event event = optionalEvent.get();
+        LocalDateTime now = LocalDateTime.now(this.clock);
+        Errors errors = new MapBindingResult(new HashMap<>(), "enrollment");
+        if (!event.isEnrollingAt(now)) {
+            errors.reject("notEnrolling", "Event is not open for enrollment");
+            return badRequest(errors);
+        }
+
+        Enrollment enrollment = Enrollment.builder()
+                .eventId(event.getId())
+                .accountId(currentUser.getId())
+                .enrolledAt(now)
+                .build();
+        switch (this.enrollmentService.enroll(event, enrollment)) {
+            case ALREADY_ENROLLED:
+                errors.reject("alreadyEnrolled", "Already enrolled in this event");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorsResource(errors));
+            case FULL:
+                errors.reject("full", "No seats left out of " + event.getLimitOfEnrollment());
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorsResource(errors));
+            case BACKLOGGED:
+                errors.reject("unavailable", "Too many enrollments are waiting to be saved");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(new ErrorsResource(errors));
+            default:
+                EnrollmentResource enrollmentResource = new EnrollmentResource(enrollment);
+                enrollmentResource.add(ApiLinks.profile("resources-events-enroll"));
+                return ResponseEntity.accepted().body(enrollmentResource);
+        }
+    }
+
+    /**
+     * 응답 캐시 필터와 같은 규칙으로 Accept 에서 고를 표현을 ETag 에 붙인다.
+     */
+    private static String negotiated(String eTag) {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        return EventETags.forVariant(eTag, EventResponseCacheFilter.variant(request));
+    }
+
+    private ResponseEntity badSearch() {
+        Errors errors = new MapBindingResult(new HashMap<>(), "eventSearch");
+        errors.reject("wrongValue", "manager or overlaps is wrong");
+        return badRequest(errors);
+    }
 
-        return ResponseEntity.ok(eventResource);
+    private ResponseEntity tooManyResults() {
+        Errors errors = new MapBindingResult(new HashMap<>(), "search");
+        errors.reject("tooMany", "Results are limited to the first " + RESULT_WINDOW + " events");
+        return badRequest(errors);
     }
 
     private ResponseEntity badRequest(Errors errors) {
@@ -0,0 +1,69 @@
+package joowon.study.restapi.events;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import joowon.study.restapi.common.AppProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * event 테이블의 대략적인 행 수. count(*) 대신 DB 통계를 읽는다.
+ * PostgreSQL 은 pg_class.reltuples, H2 는 INFORMATION_SCHEMA.TABLES.ROW_COUNT_ESTIMATE 를 쓰고,
+ * 통계가 없거나 다른 DB 이면 count(*) 로 센다. 값은 캐시해 두고 refresh 주기가 지나면 백그라운드에서 다시 읽는다.
+ */
+@Component
+public class EventCountEstimator {
+
+    private static final String TABLE = "event";
+
+    private static final String POSTGRESQL = "select reltuples::bigint from pg_class where oid = to_regclass('" + TABLE + "')";
+    private static final String H2 = "select row_count_estimate from information_schema.tables where lower(table_name) = '" + TABLE + "'";
+    private static final String COUNT = "select count(*) from " + TABLE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadingCache<String, Long> estimates;
+    private volatile String statisticsQuery;
+
+    public EventCountEstimator(JdbcTemplate jdbcTemplate, AppProperties appProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.estimates = Caffeine.newBuilder()
+                .refreshAfterWrite(appProperties.getEventCountEstimateRefresh())
+                .build(this::load);
+    }
+
+    public long estimate() {
+        return this.estimates.get(TABLE);
+    }
+
+    /**
+     * 다음 refresh 를 기다리지 않고 바로 다시 읽는다.
+     */
+    public void refresh() {
+        this.estimates.put(TABLE, load(TABLE));
+    }
+
+    private long load(String table) {
+        String query = statisticsQuery();
+        Long estimate = query == null ? null : this.jdbcTemplate.query(query, rs -> rs.next() ? rs.getLong(1) : null);
+        // reltuples 는 ANALYZE 전이면 0 혹은 -1 이다
+        if (estimate == null || estimate <= 0) {
+            estimate = this.jdbcTemplate.queryForObject(COUNT, Long.class);
+        }
+        return estimate;
+    }
+
+    private String statisticsQuery() {
+        if (this.statisticsQuery == null) {
+            String product = this.jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            if ("PostgreSQL".equals(product)) {
+                this.statisticsQuery = POSTGRESQL;
+            } else if ("H2".equals(product)) {
+                this.statisticsQuery = H2;
+            } else {
+                this.statisticsQuery = "";
+            }
+        }
+        return this.statisticsQuery.isEmpty() ? null : this.statisticsQuery;
+    }
+}
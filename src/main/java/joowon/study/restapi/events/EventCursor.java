@@ -0,0 +1,132 @@
+package joowon.study.restapi.events;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * 키셋(커서) 페이징에 사용하는 커서.
+ * (정렬 키, id) 의 마지막 값을 담고 있어서 OFFSET 없이 다음/이전 페이지를 찾을 수 있다.
+ */
+public class EventCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    enum Key {
+        ID("id", Event::getId, Integer::valueOf),
+        NAME("name", Event::getName, s -> s),
+        BEGIN_ENROLLMENT_DATE_TIME("beginEnrollmentDateTime", Event::getBeginEnrollmentDateTime, LocalDateTime::parse),
+        BEGIN_EVENT_DATE_TIME("beginEventDateTime", Event::getBeginEventDateTime, LocalDateTime::parse),
+        BASE_PRICE("basePrice", Event::getBasePrice, Integer::valueOf),
+        MAX_PRICE("maxPrice", Event::getMaxPrice, Integer::valueOf);
+
+        private final String property;
+        private final Function<Event, Comparable<?>> getter;
+        private final Function<String, Comparable<?>> parser;
+
+        Key(String property, Function<Event, Comparable<?>> getter, Function<String, Comparable<?>> parser) {
+            this.property = property;
+            this.getter = getter;
+            this.parser = parser;
+        }
+
+        static Key of(String property) {
+            return Arrays.stream(values())
+                    .filter(k -> k.property.equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported cursor sort property: " + property));
+        }
+    }
+
+    private final Key key;
+    private final Sort.Direction direction;
+    private final Comparable<?> value;
+    private final Integer id;
+
+    private EventCursor(Key key, Sort.Direction direction, Comparable<?> value, Integer id) {
+        this.key = key;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * 요청의 첫번째 정렬 조건으로 시작 위치 커서를 만든다. 정렬이 없으면 id 오름차순.
+     */
+    public static EventCursor start(Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(Sort.Order.asc("id"));
+        return new EventCursor(Key.of(order.getProperty()), order.getDirection(), null, null);
+    }
+
+    public static EventCursor of(EventCursor cursor, Event event) {
+        return new EventCursor(cursor.key, cursor.direction, cursor.key.getter.apply(event), event.getId());
+    }
+
+    public static EventCursor decode(String encoded) {
+        try {
+            String decoded = new String(DECODER.decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 4);
+            Key key = Key.of(parts[0]);
+            Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+            Integer id = Integer.valueOf(parts[2]);
+            return new EventCursor(key, direction, key.parser.apply(parts[3]), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded, e);
+        }
+    }
+
+    public String encode() {
+        String raw = key.property + ":" + direction.name() + ":" + id + ":" + value;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isStart() {
+        return id == null;
+    }
+
+    /**
+     * forward 이면 커서 뒤쪽, 아니면 커서 앞쪽을 읽는 순서.
+     */
+    public Sort sort(boolean forward) {
+        Sort.Direction dir = forward ? direction : (direction.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC);
+        Sort sort = Sort.by(dir, key.property);
+        return key == Key.ID ? sort : sort.and(Sort.by(dir, "id"));
+    }
+
+    /**
+     * (key, id) 튜플 비교로 커서 이후(혹은 이전)의 행만 남긴다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Specification<Event> seek(boolean forward) {
+        if (isStart()) {
+            return null;
+        }
+        boolean greater = forward == direction.isAscending();
+        return (root, query, cb) -> {
+            Path<Integer> idPath = root.get("id");
+            Predicate idPredicate = greater ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+            if (key == Key.ID) {
+                return idPredicate;
+            }
+            Path keyPath = root.get(key.property);
+            Comparable keyValue = value;
+            return cb.or(
+                    compare(cb, keyPath, keyValue, greater),
+                    cb.and(cb.equal(keyPath, keyValue), idPredicate));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate compare(CriteriaBuilder cb, Path path, Comparable value, boolean greater) {
+        return greater ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+}
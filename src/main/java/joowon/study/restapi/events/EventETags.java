@@ -0,0 +1,66 @@
+package joowon.study.restapi.events;
+
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 이벤트 리소스의 ETag. 버전(@Version)으로 만들기 때문에 본문을 직렬화하지 않고 계산할 수 있다.
+ * HAL JSON, CBOR, Smile 은 본문이 다르므로 forVariant 로 표현을 붙여서 구분한다.
+ */
+public final class EventETags {
+
+    private EventETags() {
+    }
+
+    /**
+     * 담당자에게는 update-event 링크가 추가되므로 표현이 다르다. 그래서 ETag 도 구분한다.
+     */
+    public static String of(Event event, boolean manager) {
+        return "\"" + event.getId() + "." + event.getVersion() + (manager ? ".m" : "") + "\"";
+    }
+
+    /**
+     * 목록은 (id, version) 과 페이지 정보, 인증 여부로 만든 해시를 사용한다.
+     */
+    public static String of(List<Event> events, Object... extras) {
+        StringBuilder builder = new StringBuilder();
+        events.forEach(e -> builder.append(e.getId()).append('.').append(e.getVersion()).append(','));
+        for (Object extra : extras) {
+            builder.append('|').append(extra);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * HAL JSON 이 아닌 표현이면 "+서브타입" 을 붙인다. ("12.3" -> "12.3+cbor") 표현을 고르지 못했으면(406) 그대로 둔다.
+     */
+    public static String forVariant(String eTag, MediaType variant) {
+        if (variant == null || MediaTypes.HAL_JSON.getSubtype().equals(variant.getSubtype())) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "+" + variant.getSubtype() + "\"";
+    }
+
+    /**
+     * If-Match 헤더의 ETag 중 하나가 이벤트의 현재 버전과 같은지 확인한다. 수정은 표현과 상관없으므로 표현은 떼고 비교한다.
+     */
+    public static boolean matches(String ifMatch, Event event) {
+        for (String tag : StringUtils.commaDelimitedListToStringArray(ifMatch)) {
+            tag = withoutVariant(tag.trim());
+            if (tag.equals("*") || tag.equals(of(event, false)) || tag.equals(of(event, true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String withoutVariant(String tag) {
+        int plus = tag.indexOf('+');
+        return plus < 0 || !tag.endsWith("\"") ? tag : tag.substring(0, plus) + "\"";
+    }
+}
@@ -0,0 +1,60 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 이벤트 전체를 한 줄에 하나씩(NDJSON) 내보낸다.
+ * 읽은 엔티티가 영속성 컨텍스트에 쌓이지 않도록 일정 개수마다 비워서 메모리 사용량을 일정하게 유지한다.
+ */
+@Component
+public class EventExporter {
+
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final EventRepository eventRepository;
+    private final ObjectWriter eventWriter;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EventExporter(EventRepository eventRepository, ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+        this.eventWriter = objectMapper.writerFor(Event.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Specification<Event> spec, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Event> events = this.eventRepository.stream(spec, Sort.by("id"));
+             JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Event> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                this.eventWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % CLEAR_INTERVAL == 0) {
+                    generator.flush();
+                    this.entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,25 @@
+package joowon.study.restapi.events;
+
+/**
+ * 메모리 색인(EventSearchIndex, EventIntervalIndex)에서 찾은 한 페이지의 이벤트 id 와 전체 일치 수.
+ */
+public class EventIndexHits {
+
+    static final EventIndexHits EMPTY = new EventIndexHits(new int[0], 0);
+
+    private final int[] ids;
+    private final long total;
+
+    EventIndexHits(int[] ids, long total) {
+        this.ids = ids;
+        this.total = total;
+    }
+
+    public int[] getIds() {
+        return this.ids;
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+}
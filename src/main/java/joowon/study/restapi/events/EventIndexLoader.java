@@ -0,0 +1,70 @@
+package joowon.study.restapi.events;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 기동할 때 저장된 이벤트 전체로 메모리 색인(EventSearchIndex, EventIntervalIndex)을 만든다.
+ * 이후에는 EventController 가 생성, 수정할 때마다 갱신한다.
+ * EventExporter 처럼 커서로 읽으면서 일정 개수마다 영속성 컨텍스트를 비운다.
+ */
+@Component
+public class EventIndexLoader implements ApplicationRunner {
+
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final EventRepository eventRepository;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventIntervalIndex eventIntervalIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EventIndexLoader(EventRepository eventRepository, EventSearchIndex eventSearchIndex,
+                            EventIntervalIndex eventIntervalIndex) {
+        this.eventRepository = eventRepository;
+        this.eventSearchIndex = eventSearchIndex;
+        this.eventIntervalIndex = eventIntervalIndex;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        load();
+    }
+
+    /**
+     * 색인을 비우고 처음부터 다시 만든다. 색인한 이벤트 수를 돌려준다.
+     */
+    @Transactional(readOnly = true)
+    public long rebuild() {
+        this.eventSearchIndex.clear();
+        this.eventIntervalIndex.clear();
+        return load();
+    }
+
+    private long load() {
+        long count = 0;
+        try (Stream<Event> events = this.eventRepository.stream(null, Sort.by("id"))) {
+            Iterator<Event> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                Event event = iterator.next();
+                this.eventSearchIndex.index(event);
+                this.eventIntervalIndex.index(event);
+                if (++count % CLEAR_INTERVAL == 0) {
+                    this.entityManager.clear();
+                }
+            }
+        }
+        this.eventSearchIndex.compact();
+        return count;
+    }
+}
@@ -0,0 +1,331 @@
+package joowon.study.restapi.events;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 모집 기간(beginEnrollmentDateTime ~ closeEnrollmentDateTime)과 이벤트 기간(beginEventDateTime ~ endEventDateTime)의 구간 색인.
+ * "지금 모집 중", "이번 주에 열리는" 처럼 기간이 겹치는 이벤트를 찾는 데 쓴다.
+ * <p>
+ * 시작 일시 B-tree 인덱스로는 시작 <= to 인 행을 모두 읽은 뒤 종료 >= from 을 걸러야 하지만,
+ * 여기서는 서브트리의 최대 종료 일시로 겹칠 수 없는 서브트리를 통째로 건너뛴다.
+ * 시작, 종료 일시 중 하나라도 없는 기간은 색인하지 않는다.
+ */
+@Component
+public class EventIntervalIndex {
+
+    public enum Period {
+        ENROLLMENT, EVENT
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntervalTree enrollment = new IntervalTree();
+    private final IntervalTree event = new IntervalTree();
+
+    /**
+     * 이미 색인된 이벤트면 예전 기간을 지우고 다시 색인한다.
+     */
+    public void index(Event event) {
+        this.lock.writeLock().lock();
+        try {
+            this.enrollment.put(event.getId(), event.getBeginEnrollmentDateTime(), event.getCloseEnrollmentDateTime());
+            this.event.put(event.getId(), event.getBeginEventDateTime(), event.getEndEventDateTime());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int eventId) {
+        this.lock.writeLock().lock();
+        try {
+            this.enrollment.remove(eventId);
+            this.event.remove(eventId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.enrollment.clear();
+            this.event.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 기간이 [from, to] 와 겹치는(시작 <= to 이고 종료 >= from) 이벤트를 시작 일시, id 순서로 offset 부터 limit 개 찾는다.
+     */
+    public EventIndexHits overlaps(Period period, LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        IntervalTree tree = period == Period.ENROLLMENT ? this.enrollment : this.event;
+        this.lock.readLock().lock();
+        try {
+            return tree.overlaps(seconds(from), from.getNano(), seconds(to), to.getNano(), offset, limit);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public int size(Period period) {
+        return period == Period.ENROLLMENT ? this.enrollment.size : this.event.size;
+    }
+
+    /**
+     * 실제 시각이 아니라 순서만 맞으면 되므로 UTC 로 바꾼다. 나노초까지 한 long 에 넣으면 1677 ~ 2262 년 밖에서 넘치므로
+     * (초, 나노초) 를 따로 두고 차례로 비교한다.
+     */
+    static long seconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static int compare(long seconds, int nanos, long otherSeconds, int otherNanos) {
+        int result = Long.compare(seconds, otherSeconds);
+        return result != 0 ? result : Integer.compare(nanos, otherNanos);
+    }
+
+    /**
+     * (시작, id) 를 키로 하는 트립(treap). 각 노드에 서브트리의 최대 종료 시각을 같이 둔다.
+     * 이벤트 id 가 곧 노드 번호이고 노드 필드는 id 를 위치로 쓰는 배열에 둔다. (노드 객체 없이 노드당 44 바이트)
+     * 우선순위는 id 의 해시라서 따로 저장하지 않는다. 호출하는 쪽에서 잠금을 잡는다.
+     */
+    static final class IntervalTree {
+
+        private static final int NIL = -1;
+
+        private long[] starts = new long[0];
+        private int[] startNanos = new int[0];
+        private long[] ends = new long[0];
+        private int[] endNanos = new int[0];
+        private long[] maxEnds = new long[0];
+        private int[] maxEndNanos = new int[0];
+        private int[] lefts = new int[0];
+        private int[] rights = new int[0];
+        private final BitSet present = new BitSet();
+        private int root = NIL;
+        private int size;
+
+        // split 의 결과
+        private int splitLeft;
+        private int splitRight;
+
+        void put(int id, LocalDateTime start, LocalDateTime end) {
+            remove(id);
+            if (start == null || end == null) {
+                return;
+            }
+            ensureCapacity(id);
+            this.starts[id] = seconds(start);
+            this.startNanos[id] = start.getNano();
+            this.ends[id] = seconds(end);
+            this.endNanos[id] = end.getNano();
+            this.maxEnds[id] = this.ends[id];
+            this.maxEndNanos[id] = this.endNanos[id];
+            this.lefts[id] = NIL;
+            this.rights[id] = NIL;
+            this.root = insert(this.root, id);
+            this.present.set(id);
+            this.size++;
+        }
+
+        void remove(int id) {
+            if (!this.present.get(id)) {
+                return;
+            }
+            this.root = remove(this.root, id);
+            this.present.clear(id);
+            this.size--;
+        }
+
+        void clear() {
+            this.present.clear();
+            this.root = NIL;
+            this.size = 0;
+        }
+
+        EventIndexHits overlaps(long from, int fromNanos, long to, int toNanos, int offset, int limit) {
+            if (compare(from, fromNanos, to, toNanos) > 0 || limit <= 0) {
+                return EventIndexHits.EMPTY;
+            }
+            Collector collector = new Collector(from, fromNanos, to, toNanos, offset, limit);
+            collect(this.root, collector);
+            return new EventIndexHits(collector.page(), collector.total);
+        }
+
+        private void collect(int node, Collector collector) {
+            // 서브트리의 모든 구간이 from 전에 끝난다
+            if (node == NIL || compare(this.maxEnds[node], this.maxEndNanos[node], collector.from, collector.fromNanos) < 0) {
+                return;
+            }
+            collect(this.lefts[node], collector);
+            // 오른쪽 서브트리는 모두 to 이후에 시작한다
+            if (compare(this.starts[node], this.startNanos[node], collector.to, collector.toNanos) > 0) {
+                return;
+            }
+            if (compare(this.ends[node], this.endNanos[node], collector.from, collector.fromNanos) >= 0) {
+                collector.add(node);
+            }
+            collect(this.rights[node], collector);
+        }
+
+        private int insert(int node, int id) {
+            if (node == NIL) {
+                return id;
+            }
+            if (priority(id) > priority(node)) {
+                split(node, id);
+                this.lefts[id] = this.splitLeft;
+                this.rights[id] = this.splitRight;
+                update(id);
+                return id;
+            }
+            if (less(id, node)) {
+                this.lefts[node] = insert(this.lefts[node], id);
+            } else {
+                this.rights[node] = insert(this.rights[node], id);
+            }
+            update(node);
+            return node;
+        }
+
+        private int remove(int node, int id) {
+            if (node == id) {
+                return merge(this.lefts[id], this.rights[id]);
+            }
+            if (less(id, node)) {
+                this.lefts[node] = remove(this.lefts[node], id);
+            } else {
+                this.rights[node] = remove(this.rights[node], id);
+            }
+            update(node);
+            return node;
+        }
+
+        /**
+         * node 서브트리를 key 보다 앞선 노드(splitLeft)와 뒤의 노드(splitRight)로 나눈다.
+         */
+        private void split(int node, int key) {
+            if (node == NIL) {
+                this.splitLeft = NIL;
+                this.splitRight = NIL;
+                return;
+            }
+            if (less(node, key)) {
+                split(this.rights[node], key);
+                this.rights[node] = this.splitLeft;
+                update(node);
+                this.splitLeft = node;
+            } else {
+                split(this.lefts[node], key);
+                this.lefts[node] = this.splitRight;
+                update(node);
+                this.splitRight = node;
+            }
+        }
+
+        private int merge(int left, int right) {
+            if (left == NIL) {
+                return right;
+            }
+            if (right == NIL) {
+                return left;
+            }
+            if (priority(left) > priority(right)) {
+                this.rights[left] = merge(this.rights[left], right);
+                update(left);
+                return left;
+            }
+            this.lefts[right] = merge(left, this.lefts[right]);
+            update(right);
+            return right;
+        }
+
+        private void update(int node) {
+            this.maxEnds[node] = this.ends[node];
+            this.maxEndNanos[node] = this.endNanos[node];
+            updateMaxEnd(node, this.lefts[node]);
+            updateMaxEnd(node, this.rights[node]);
+        }
+
+        private void updateMaxEnd(int node, int child) {
+            if (child != NIL && compare(this.maxEnds[child], this.maxEndNanos[child], this.maxEnds[node], this.maxEndNanos[node]) > 0) {
+                this.maxEnds[node] = this.maxEnds[child];
+                this.maxEndNanos[node] = this.maxEndNanos[child];
+            }
+        }
+
+        private boolean less(int a, int b) {
+            int result = compare(this.starts[a], this.startNanos[a], this.starts[b], this.startNanos[b]);
+            return result < 0 || (result == 0 && a < b);
+        }
+
+        private void ensureCapacity(int id) {
+            if (id < this.starts.length) {
+                return;
+            }
+            int capacity = Math.max(id + 1, Math.max(1024, this.starts.length * 2));
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.startNanos = Arrays.copyOf(this.startNanos, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.endNanos = Arrays.copyOf(this.endNanos, capacity);
+            this.maxEnds = Arrays.copyOf(this.maxEnds, capacity);
+            this.maxEndNanos = Arrays.copyOf(this.maxEndNanos, capacity);
+            this.lefts = Arrays.copyOf(this.lefts, capacity);
+            this.rights = Arrays.copyOf(this.rights, capacity);
+        }
+
+        /**
+         * 연속된 id 도 고르게 퍼지도록 섞는다. (murmur3 fmix32) 같으면 id 로 비교한다.
+         */
+        private static long priority(int id) {
+            int h = id;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return ((long) h << 32) | (id & 0xffffffffL);
+        }
+    }
+
+    /**
+     * 찾는 구간 [from, to] 와 겹치는 구간을 모두 세면서 offset 부터 limit 개의 id 만 담는다.
+     */
+    private static final class Collector {
+
+        private final long from;
+        private final int fromNanos;
+        private final long to;
+        private final int toNanos;
+        private final int offset;
+        private final int[] ids;
+        private int count;
+        private long total;
+
+        Collector(long from, int fromNanos, long to, int toNanos, int offset, int limit) {
+            this.from = from;
+            this.fromNanos = fromNanos;
+            this.to = to;
+            this.toNanos = toNanos;
+            this.offset = offset;
+            this.ids = new int[limit];
+        }
+
+        void add(int id) {
+            if (this.total >= this.offset && this.count < this.ids.length) {
+                this.ids[this.count++] = id;
+            }
+            this.total++;
+        }
+
+        int[] page() {
+            return this.count == this.ids.length ? this.ids : Arrays.copyOf(this.ids, this.count);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package joowon.study.restapi.events;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * EventDto -> Event 매핑. ModelMapper 와 같은 결과를 리플렉션 없이 만든다.
+ * EventDto 나 Event 에 필드를 추가하면 여기도 함께 고쳐야 한다.
+ */
+@Component
+public class EventMapper {
+
+    public Event toEvent(EventDto eventDto) {
+        Event event = new Event();
+        update(eventDto, event);
+        return event;
+    }
+
+    /**
+     * 기존 이벤트에 입력 값을 덮어쓴다. id, 상태, 담당자 등 EventDto 에 없는 값은 그대로 둔다.
+     */
+    public void update(EventDto eventDto, Event event) {
+        event.setName(eventDto.getName());
+        event.setDescription(eventDto.getDescription());
+        event.setBeginEnrollmentDateTime(eventDto.getBeginEnrollmentDateTime());
+        event.setCloseEnrollmentDateTime(eventDto.getCloseEnrollmentDateTime());
+        event.setBeginEventDateTime(eventDto.getBeginEventDateTime());
+        event.setEndEventDateTime(eventDto.getEndEventDateTime());
+        event.setLocation(eventDto.getLocation());
+        event.setBasePrice(eventDto.getBasePrice());
+        event.setMaxPrice(eventDto.getMaxPrice());
+        event.setLimitOfEnrollment(eventDto.getLimitOfEnrollment());
+    }
+}
@@ -0,0 +1,22 @@
+package joowon.study.restapi.events;
+
+/**
+ * 목록 응답 page.totalElements 의 종류. 요청 파라미터 total 로 고르고 응답 page.total 로 알려준다.
+ */
+public enum EventPageTotal {
+
+    /**
+     * count 쿼리로 센 정확한 값
+     */
+    EXACT,
+
+    /**
+     * DB 통계로 추정한 값. 필터가 있으면 추정할 수 없어서 ABSENT 가 된다.
+     */
+    ESTIMATED,
+
+    /**
+     * 전체 개수 없이 다음 페이지 여부만 알려준다. (totalElements, totalPages, last 링크 없음)
+     */
+    ABSENT
+}
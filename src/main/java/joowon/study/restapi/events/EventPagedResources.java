@@ -0,0 +1,29 @@
+package joowon.study.restapi.events;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+
+import java.util.stream.Collectors;
+
+/**
+ * GET /api/events 의 페이지 응답. EventPagedResourcesSerializer 로 직접 쓴다.
+ * 전체 개수가 정확하지 않으면 last 링크를 빼고, ABSENT 이면 totalElements, totalPages 를 쓰지 않는다.
+ */
+public class EventPagedResources extends PagedResources<EventResource> {
+
+    private final EventPageTotal total;
+
+    public EventPagedResources(PagedResources<EventResource> page) {
+        this(page, EventPageTotal.EXACT);
+    }
+
+    public EventPagedResources(PagedResources<EventResource> page, EventPageTotal total) {
+        super(page.getContent(), page.getMetadata(), total == EventPageTotal.EXACT ? page.getLinks()
+                : page.getLinks().stream().filter(l -> !Link.REL_LAST.equals(l.getRel())).collect(Collectors.toList()));
+        this.total = total;
+    }
+
+    public EventPageTotal getTotal() {
+        return this.total;
+    }
+}
@@ -0,0 +1,67 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import joowon.study.restapi.common.HalLinkWriter;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.hateoas.PagedResources;
+
+import java.io.IOException;
+
+/**
+ * HAL 페이지 응답 ("_embedded.eventList", "_links", "page") 을 직접 쓴다.
+ * 목록이 비어 있으면 Jackson2HalModule 과 같이 "_embedded" 를 생략한다. page.total 로 전체 개수의 종류를 알려준다.
+ */
+@JsonComponent
+public class EventPagedResourcesSerializer extends JsonSerializer<EventPagedResources> {
+
+    private static final SerializedString EMBEDDED = new SerializedString("_embedded");
+    private static final SerializedString EVENT_LIST = new SerializedString("eventList");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializedString NUMBER = new SerializedString("number");
+    private static final SerializedString TOTAL = new SerializedString("total");
+
+    @Override
+    public void serialize(EventPagedResources resources, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        if (!resources.getContent().isEmpty()) {
+            gen.writeFieldName(EMBEDDED);
+            gen.writeStartObject();
+            gen.writeFieldName(EVENT_LIST);
+            gen.writeStartArray();
+            for (EventResource resource : resources.getContent()) {
+                gen.writeStartObject();
+                EventSerializer.writeFields(resource.getContent(), gen);
+                HalLinkWriter.writeLinks(resource.getLinks(), gen);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        HalLinkWriter.writeLinks(resources.getLinks(), gen);
+        PagedResources.PageMetadata metadata = resources.getMetadata();
+        if (metadata != null) {
+            gen.writeFieldName(PAGE);
+            gen.writeStartObject();
+            gen.writeFieldName(SIZE);
+            gen.writeNumber(metadata.getSize());
+            if (resources.getTotal() != EventPageTotal.ABSENT) {
+                gen.writeFieldName(TOTAL_ELEMENTS);
+                gen.writeNumber(metadata.getTotalElements());
+                gen.writeFieldName(TOTAL_PAGES);
+                gen.writeNumber(metadata.getTotalPages());
+            }
+            gen.writeFieldName(NUMBER);
+            gen.writeNumber(metadata.getNumber());
+            gen.writeFieldName(TOTAL);
+            gen.writeString(resources.getTotal().name());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+}
@@ -1,7 +1,48 @@
 package joowon.study.restapi.events;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface EventRepository extends JpaRepository<Event, Integer> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
+public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event>, EventRepositoryCustom {
+
+    /**
+     * status 상태이고 모집 시작 일시가 있는 이벤트의 (id, 모집 시작 일시). idx_event_status_begin_enrollment 를 탄다.
+     */
+    @Query("select e.id as id, e.beginEnrollmentDateTime as beginEnrollmentDateTime from Event e"
+            + " where e.eventStatus = :status and e.beginEnrollmentDateTime is not null")
+    List<EnrollmentSchedule> findEnrollmentSchedules(@Param("status") EventStatus status);
+
+    /**
+     * updateEventStatus 가 바꿀 이벤트의 id. 상태를 바꾼 이벤트만 세려고 UPDATE 전에 읽는다.
+     */
+    @Query("select e.id from Event e"
+            + " where e.id in :ids and e.eventStatus = :from and e.beginEnrollmentDateTime <= :now")
+    List<Integer> findIdsToUpdateEventStatus(@Param("ids") Collection<Integer> ids, @Param("from") EventStatus from,
+                                             @Param("now") LocalDateTime now);
+
+    /**
+     * ids 중 아직 from 상태이고 모집 시작 일시가 now 이전인 이벤트를 to 상태로 바꾼다.
+     * 벌크 UPDATE 라서 엔티티 리스너를 거치지 않는다. 캐시는 호출하는 쪽에서 비운다.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Event e set e.eventStatus = :to, e.version = e.version + 1"
+            + " where e.id in :ids and e.eventStatus = :from and e.beginEnrollmentDateTime <= :now")
+    int updateEventStatus(@Param("ids") Collection<Integer> ids, @Param("from") EventStatus from,
+                          @Param("to") EventStatus to, @Param("now") LocalDateTime now);
+
+    interface EnrollmentSchedule {
+
+        Integer getId();
+
+        LocalDateTime getBeginEnrollmentDateTime();
+    }
 }
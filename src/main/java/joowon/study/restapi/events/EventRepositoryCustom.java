@@ -0,0 +1,21 @@
+package joowon.study.restapi.events;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+public interface EventRepositoryCustom {
+
+    /**
+     * count 쿼리 없이 size + 1 개를 읽어서 다음 페이지 존재 여부만 판단한다.
+     */
+    Slice<Event> findSlice(Specification<Event> spec, Pageable pageable);
+
+    /**
+     * JDBC fetch size 단위로 읽어오는 스트림. 트랜잭션 안에서 사용하고 다 쓰면 닫아야 한다.
+     */
+    Stream<Event> stream(Specification<Event> spec, Sort sort);
+}
@@ -0,0 +1,66 @@
+package joowon.study.restapi.events;
+
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class EventRepositoryImpl implements EventRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Event> findSlice(Specification<Event> spec, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<Event> content = createQuery(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(size + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<Event> stream(Specification<Event> spec, Sort sort) {
+        return createQuery(spec, sort)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<Event> createQuery(Specification<Event> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> root = query.from(Event.class);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+}
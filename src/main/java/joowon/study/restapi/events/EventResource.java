@@ -1,15 +1,14 @@
 package joowon.study.restapi.events;
 
+import joowon.study.restapi.common.ApiLinks;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resource;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-
 public class EventResource extends Resource<Event> {
 
     public EventResource(Event event, Link... links) {
         super(event, links);
-        add(linkTo(EventController.class).slash(event.getId()).withSelfRel());
+        add(ApiLinks.eventSelf(event.getId()));
     }
 
     //    @JsonUnwrapped
@@ -0,0 +1,24 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import joowon.study.restapi.common.HalLinkWriter;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * EventResource 를 HAL 모양 그대로 쓴다. ({@literal @}JsonUnwrapped 된 Event 필드 + "_links")
+ */
+@JsonComponent
+public class EventResourceSerializer extends JsonSerializer<EventResource> {
+
+    @Override
+    public void serialize(EventResource resource, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        EventSerializer.writeFields(resource.getContent(), gen);
+        HalLinkWriter.writeLinks(resource.getLinks(), gen);
+        gen.writeEndObject();
+    }
+}
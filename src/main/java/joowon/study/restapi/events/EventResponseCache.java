@@ -0,0 +1,145 @@
+package joowon.study.restapi.events;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import joowon.study.restapi.common.AppProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 익명 이벤트 조회 응답(gzip 으로 압축한 본문)을 담는 캐시. 압축한 본문 크기 합으로 비운다.
+ * ttl 이 지나면 stale 이 되고 stale-ttl 이 지나면 사라진다. 이벤트가 바뀌면 전부 비운다. (EventChangeListener)
+ */
+@Component
+public class EventResponseCache {
+
+    private final Cache<String, Entry> cache;
+    private final long ttlNanos;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder staleHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder bypassCount = new LongAdder();
+
+    public EventResponseCache(AppProperties appProperties) {
+        Duration ttl = appProperties.getEventResponseCacheTtl();
+        this.ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(appProperties.getEventResponseCacheMaximumBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.body.length)
+                .expireAfterWrite(ttl.plus(appProperties.getEventResponseCacheStaleTtl()))
+                .build();
+    }
+
+    public Entry get(String key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.nanoTime() - entry.storedAt < this.ttlNanos;
+    }
+
+    /**
+     * 조회를 시작할 때 받은 generation 이 그 사이 바뀌었으면(이벤트 변경) 담지 않는다.
+     */
+    public void put(String key, Entry entry, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        this.cache.put(key, entry);
+        if (this.generation.get() != generation) {
+            this.cache.invalidate(key);
+        }
+    }
+
+    public long generation() {
+        return this.generation.get();
+    }
+
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * 같은 키는 한 요청만 다시 조회한다. 나머지 요청은 그동안 stale 응답을 받는다.
+     */
+    public boolean startRevalidation(String key) {
+        return this.revalidating.add(key);
+    }
+
+    public void finishRevalidation(String key) {
+        this.revalidating.remove(key);
+    }
+
+    void recordHit() {
+        this.hitCount.increment();
+    }
+
+    void recordStaleHit() {
+        this.staleHitCount.increment();
+    }
+
+    void recordMiss() {
+        this.missCount.increment();
+    }
+
+    void recordBypass() {
+        this.bypassCount.increment();
+    }
+
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    public long getStaleHitCount() {
+        return this.staleHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    public long getBypassCount() {
+        return this.bypassCount.sum();
+    }
+
+    public long getSizeInBytes() {
+        return this.cache.policy().eviction()
+                .map(e -> e.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    public static class Entry {
+
+        private final byte[] body;
+        private final String contentType;
+        private final String eTag;
+        private final long storedAt = System.nanoTime();
+
+        public Entry(byte[] gzippedBody, String contentType, String eTag) {
+            this.body = gzippedBody;
+            this.contentType = contentType;
+            this.eTag = eTag;
+        }
+
+        public byte[] getGzippedBody() {
+            return this.body;
+        }
+
+        public String getContentType() {
+            return this.contentType;
+        }
+
+        public String getETag() {
+            return this.eTag;
+        }
+    }
+}
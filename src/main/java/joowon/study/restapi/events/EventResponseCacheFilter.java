@@ -0,0 +1,302 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.BinaryMediaTypes;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 익명 GET /api/events, GET /api/events/{id} 응답을 EventResponseCache 에 담아서 다시 쓴다.
+ * 인증된 요청은 create-event, update-event 링크 때문에 표현이 달라서 캐시를 쓰지 않는다.
+ * 스프링 시큐리티 필터 뒤에 등록해서 SecurityContext 로 익명 여부를 판단한다.
+ * <p>
+ * stale 항목은 한 요청만 다시 조회하고 그동안 다른 요청은 stale 응답을 받는다. 다시 조회가 실패해도 stale 응답을 준다.
+ */
+public class EventResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Pattern CACHEABLE_PATH = Pattern.compile("/api/events(/\\d+)?");
+    private static final List<MediaType> PRODUCIBLE = List.of(
+            MediaTypes.HAL_JSON_UTF8, BinaryMediaTypes.APPLICATION_CBOR, BinaryMediaTypes.APPLICATION_SMILE);
+    private static final String VARY = String.join(", ", HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.AUTHORIZATION);
+
+    private final EventResponseCache cache;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public EventResponseCacheFilter(EventResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !CACHEABLE_PATH.matcher(this.urlPathHelper.getPathWithinApplication(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        MediaType variant = variant(request);
+        if (variant == null || isAuthenticated()) {
+            this.cache.recordBypass();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(request, variant);
+        EventResponseCache.Entry entry = this.cache.get(key);
+        if (entry != null && this.cache.isFresh(entry)) {
+            this.cache.recordHit();
+            write(entry, "HIT", request, response);
+            return;
+        }
+        if (entry == null) {
+            this.cache.recordMiss();
+            fetch(key, null, request, response, filterChain);
+            return;
+        }
+        if (!this.cache.startRevalidation(key)) {
+            this.cache.recordStaleHit();
+            write(entry, "STALE", request, response);
+            return;
+        }
+        try {
+            fetch(key, entry, request, response, filterChain);
+        } finally {
+            this.cache.finishRevalidation(key);
+        }
+    }
+
+    /**
+     * 조건부 헤더를 빼고 전체 본문을 받아서 담은 뒤, 원래 요청 기준으로 (304 포함) 응답한다.
+     * stale 이 있으면 조회 실패(예외, 5xx) 때 stale 로 응답한다.
+     */
+    private void fetch(String key, EventResponseCache.Entry stale, HttpServletRequest request, HttpServletResponse response,
+                       FilterChain filterChain) throws ServletException, IOException {
+        long generation = this.cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new UnconditionalRequest(request), wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            if (stale == null || response.isCommitted()) {
+                throw e;
+            }
+            logger.warn("Serving stale response for " + key, e);
+            writeStale(stale, request, response);
+            return;
+        }
+
+        int status = wrapper.getStatusCode();
+        if (stale != null && status >= HttpStatus.INTERNAL_SERVER_ERROR.value() && !response.isCommitted()) {
+            writeStale(stale, request, response);
+            return;
+        }
+        if (status != HttpStatus.OK.value() || wrapper.getContentType() == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        EventResponseCache.Entry entry = new EventResponseCache.Entry(
+                gzip(wrapper.getContentAsByteArray()), wrapper.getContentType(), wrapper.getHeader(HttpHeaders.ETAG));
+        this.cache.put(key, entry, generation);
+        write(entry, "MISS", request, response);
+    }
+
+    private void writeStale(EventResponseCache.Entry stale, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.reset();
+        this.cache.recordStaleHit();
+        write(stale, "STALE", request, response);
+    }
+
+    private void write(EventResponseCache.Entry entry, String cacheStatus, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setHeader(HttpHeaders.VARY, VARY);
+        response.setHeader(CACHE_STATUS_HEADER, cacheStatus);
+        response.setContentType(entry.getContentType());
+        if (entry.getETag() != null && new ServletWebRequest(request, response).checkNotModified(entry.getETag())) {
+            return;
+        }
+
+        byte[] body = entry.getGzippedBody();
+        if (acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            body = gunzip(body);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean isAuthenticated() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
+    /**
+     * 컨트롤러와 같은 순서로 Accept 에 맞는 표현을 고른다. 맞는 게 없으면 캐시하지 않는다. (406 은 컨트롤러가 처리)
+     */
+    static MediaType variant(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return PRODUCIBLE.get(0);
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType acceptedType : accepted) {
+            for (MediaType producible : PRODUCIBLE) {
+                if (acceptedType.isCompatibleWith(producible)) {
+                    return producible;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 표현 + 링크에 들어가는 기준 URL + 경로 + 이름순으로 정렬한 쿼리 파라미터. 같은 이름의 값 순서(sort)는 유지한다.
+     */
+    String key(HttpServletRequest request, MediaType variant) {
+        StringBuilder key = new StringBuilder()
+                .append(variant.getType()).append('/').append(variant.getSubtype()).append(' ')
+                .append(ServletUriComponentsBuilder.fromContextPath(request).build().toUriString())
+                .append(this.urlPathHelper.getPathWithinApplication(request));
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            String name = UriUtils.encodeQueryParam(parameter.getKey(), StandardCharsets.UTF_8);
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(name).append('=').append(UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Accept-Encoding 의 q 값을 읽어서 gzip 이 identity 보다 덜 선호되지 않을 때만 압축한 본문을 준다.
+     * gzip 이 없으면 * 의 q 를 쓰고, q=0 은 받지 않는다는 뜻이다. identity 는 적혀 있지 않으면 가장 낮게 본다. (gzip 을 못 주면 그대로 준다)
+     */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        double gzip = -1;
+        double identity = -1;
+        double any = -1;
+        Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (values != null && values.hasMoreElements()) {
+            for (String coding : values.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim().toLowerCase();
+                double quality = quality(parts);
+                if (name.equals("gzip") || name.equals("x-gzip")) {
+                    gzip = Math.max(gzip, quality);
+                } else if (name.equals("identity")) {
+                    identity = Math.max(identity, quality);
+                } else if (name.equals("*")) {
+                    any = Math.max(any, quality);
+                }
+            }
+        }
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (identity < 0) {
+            identity = Math.max(any, 0);
+        }
+        return gzip > 0 && gzip >= identity;
+    }
+
+    /**
+     * q 가 없으면 1, 읽을 수 없으면 0 이다.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') && parameter.charAt(1) == '=') {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(2).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    /**
+     * 캐시에 담을 전체 본문을 받기 위해 If-None-Match, If-Modified-Since 를 숨긴다.
+     */
+    private static class UnconditionalRequest extends HttpServletRequestWrapper {
+
+        UnconditionalRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isConditional(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isConditional(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            return isConditional(name) ? -1 : super.getDateHeader(name);
+        }
+
+        private static boolean isConditional(String name) {
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) || HttpHeaders.IF_MODIFIED_SINCE.equalsIgnoreCase(name);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.accounts.Account;
+import lombok.Data;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+import static joowon.study.restapi.events.EventSpecs.*;
+
+/**
+ * 이벤트 목록 조회 필터. 값이 없는 조건은 무시한다.
+ */
+@Data
+public class EventSearch {
+
+    public static final String MANAGER_ME = "me";
+
+    private EventStatus eventStatus;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime beginEventDateTimeFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime beginEventDateTimeTo;
+    private Boolean free;
+    private Boolean offline;
+    private Integer basePriceFrom;
+    private Integer maxPriceTo;
+    private String manager; // 계정 id 혹은 me
+    private String overlaps; // 이벤트 기간과 겹치는 from,to
+
+    public boolean hasFilter() {
+        return eventStatus != null || beginEventDateTimeFrom != null || beginEventDateTimeTo != null
+                || free != null || offline != null || basePriceFrom != null || maxPriceTo != null || manager != null
+                || overlaps != null;
+    }
+
+    /**
+     * overlaps 외에 다른 조건이 없으면 EventIntervalIndex 로 찾을 수 있다.
+     */
+    public boolean isOverlapsOnly() {
+        return overlaps != null && eventStatus == null && beginEventDateTimeFrom == null && beginEventDateTimeTo == null
+                && free == null && offline == null && basePriceFrom == null && maxPriceTo == null && manager == null;
+    }
+
+    /**
+     * @throws IllegalArgumentException overlaps 형식이 틀린 경우
+     */
+    public EventWindow overlapsWindow() {
+        return overlaps == null ? null : EventWindow.parse(overlaps);
+    }
+
+    public boolean isManagerMe() {
+        return MANAGER_ME.equals(manager);
+    }
+
+    /**
+     * @throws IllegalArgumentException manager 값이 id 도 me 도 아니거나 overlaps 형식이 틀린 경우
+     */
+    public Specification<Event> toSpecification(Account currentUser) {
+        Integer managerId = null;
+        if (isManagerMe()) {
+            managerId = currentUser.getId();
+        } else if (manager != null) {
+            managerId = Integer.valueOf(manager);
+        }
+
+        return Specification.where(eventStatusEquals(eventStatus))
+                .and(beginEventDateTimeBetween(beginEventDateTimeFrom, beginEventDateTimeTo))
+                .and(freeEquals(free))
+                .and(offlineEquals(offline))
+                .and(basePriceGreaterThanOrEqualTo(basePriceFrom))
+                .and(maxPriceLessThanOrEqualTo(maxPriceTo))
+                .and(managerIdEquals(managerId))
+                .and(eventPeriodOverlaps(overlapsWindow()));
+    }
+}
@@ -0,0 +1,343 @@
+package joowon.study.restapi.events;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 이벤트 name, description, location 의 역색인. GET /api/events/search 에서 쓴다.
+ * <p>
+ * 단어별 포스팅 리스트는 이벤트 id 오름차순 int 배열과 같은 위치의 가중치(byte) 배열이다.
+ * 검색어의 모든 단어가 들어있는 이벤트를 찾고(AND) idf * 필드 가중치 합으로 정렬한다.
+ * 수정할 때 예전 단어를 지우기 위해 이벤트 id 로 찾는 단어 id 배열(정방향 색인)도 가지고 있다.
+ * 이벤트 id 는 시퀀스로 만들어서 촘촘하므로 정방향 색인은 id 를 위치로 쓰는 배열이다.
+ */
+@Component
+public class EventSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_WEIGHT = 255;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private Postings[] postings = new Postings[1024];
+    private int termCount;
+    private int[][] termsByEvent = new int[1024][];
+    private int documentCount;
+
+    /**
+     * 이미 색인된 이벤트면 예전 단어를 지우고 다시 색인한다.
+     */
+    public void index(Event event) {
+        Map<String, Integer> weights = weights(event);
+        int id = event.getId();
+        this.lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int[] terms = new int[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                int termId = termId(entry.getKey());
+                this.postings[termId].add(id, Math.min(entry.getValue(), MAX_WEIGHT));
+                terms[i++] = termId;
+            }
+            if (id >= this.termsByEvent.length) {
+                this.termsByEvent = Arrays.copyOf(this.termsByEvent, Math.max(id + 1, this.termsByEvent.length * 2));
+            }
+            this.termsByEvent[id] = terms;
+            this.documentCount++;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int eventId) {
+        this.lock.writeLock().lock();
+        try {
+            removeLocked(eventId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            this.termIds.clear();
+            this.postings = new Postings[1024];
+            this.termCount = 0;
+            this.termsByEvent = new int[1024][];
+            this.documentCount = 0;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 한꺼번에 색인한 뒤 배열의 남는 공간을 줄인다.
+     */
+    public void compact() {
+        this.lock.writeLock().lock();
+        try {
+            for (int i = 0; i < this.termCount; i++) {
+                this.postings[i].trim();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 점수가 높은 순서(같으면 id 가 큰 순서)로 offset 부터 limit 개의 이벤트 id 와 전체 일치 수를 돌려준다.
+     */
+    public EventIndexHits search(String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return EventIndexHits.EMPTY;
+        }
+
+        this.lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                Integer termId = this.termIds.get(terms.get(i));
+                if (termId == null || this.postings[termId].size == 0) {
+                    return EventIndexHits.EMPTY;
+                }
+                lists[i] = this.postings[termId];
+            }
+            // 가장 짧은 리스트를 기준으로 나머지에서 찾는다
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            float[] idf = new float[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = (float) Math.log(1 + (double) this.documentCount / lists[i].size);
+            }
+
+            TopHits top = new TopHits(offset + limit);
+            int[] cursors = new int[lists.length];
+            Postings first = lists[0];
+            long total = 0;
+            candidates:
+            for (int i = 0; i < first.size; i++) {
+                int id = first.ids[i];
+                float score = idf[0] * (first.weights[i] & 0xff);
+                for (int j = 1; j < lists.length; j++) {
+                    Postings list = lists[j];
+                    int position = list.seek(cursors[j], id);
+                    cursors[j] = position;
+                    if (position == list.size) {
+                        break candidates;
+                    }
+                    if (list.ids[position] != id) {
+                        continue candidates;
+                    }
+                    score += idf[j] * (list.weights[position] & 0xff);
+                }
+                total++;
+                top.offer(score, id);
+            }
+            return new EventIndexHits(top.ids(offset, limit), total);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentCount() {
+        return this.documentCount;
+    }
+
+    public int getTermCount() {
+        return this.termCount;
+    }
+
+    /**
+     * 소문자로 바꾸고 글자, 숫자가 아닌 문자로 나눈다. 중복은 한번만 남긴다. (한 필드 안에서 여러번 나와도 가중치는 한번)
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean letter = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(lower.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static Map<String, Integer> weights(Event event) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        addWeights(weights, event.getName(), NAME_WEIGHT);
+        addWeights(weights, event.getLocation(), LOCATION_WEIGHT);
+        addWeights(weights, event.getDescription(), DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static void addWeights(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private int termId(String term) {
+        Integer termId = this.termIds.get(term);
+        if (termId != null) {
+            return termId;
+        }
+        if (this.termCount == this.postings.length) {
+            this.postings = Arrays.copyOf(this.postings, this.termCount * 2);
+        }
+        this.postings[this.termCount] = new Postings();
+        this.termIds.put(term, this.termCount);
+        return this.termCount++;
+    }
+
+    private void removeLocked(int eventId) {
+        if (eventId >= this.termsByEvent.length || this.termsByEvent[eventId] == null) {
+            return;
+        }
+        for (int termId : this.termsByEvent[eventId]) {
+            this.postings[termId].remove(eventId);
+        }
+        this.termsByEvent[eventId] = null;
+        this.documentCount--;
+    }
+
+    /**
+     * id 오름차순으로 정렬된 포스팅 리스트. 새 이벤트는 id 가 가장 크므로 보통 끝에 붙는다.
+     */
+    static final class Postings {
+
+        int[] ids = new int[2];
+        byte[] weights = new byte[2];
+        int size;
+
+        void add(int id, int weight) {
+            int position = this.size;
+            if (this.size > 0 && this.ids[this.size - 1] >= id) {
+                position = Arrays.binarySearch(this.ids, 0, this.size, id);
+                if (position >= 0) {
+                    this.weights[position] = (byte) weight;
+                    return;
+                }
+                position = -position - 1;
+            }
+            if (this.size == this.ids.length) {
+                int capacity = this.size + (this.size >> 1) + 1;
+                this.ids = Arrays.copyOf(this.ids, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+            }
+            System.arraycopy(this.ids, position, this.ids, position + 1, this.size - position);
+            System.arraycopy(this.weights, position, this.weights, position + 1, this.size - position);
+            this.ids[position] = id;
+            this.weights[position] = (byte) weight;
+            this.size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(this.ids, position + 1, this.ids, position, this.size - position - 1);
+            System.arraycopy(this.weights, position + 1, this.weights, position, this.size - position - 1);
+            this.size--;
+        }
+
+        void trim() {
+            this.ids = Arrays.copyOf(this.ids, this.size);
+            this.weights = Arrays.copyOf(this.weights, this.size);
+        }
+
+        /**
+         * from 부터 id 이상인 첫 위치. 간격을 두배씩 늘려가며 범위를 찾고 그 안에서 이진 탐색한다.
+         */
+        int seek(int from, int id) {
+            int bound = 1;
+            while (from + bound < this.size && this.ids[from + bound] < id) {
+                bound <<= 1;
+            }
+            int low = from + (bound >> 1);
+            int high = Math.min(from + bound + 1, this.size);
+            int position = Arrays.binarySearch(this.ids, low, high, id);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+
+    /**
+     * 점수 상위 k 개를 담는 최소 힙. (점수 float 비트, id) 를 long 하나로 묶어서 비교한다.
+     * 점수는 항상 0 이상이라 float 비트 순서가 크기 순서와 같다.
+     */
+    static final class TopHits {
+
+        private final long[] heap;
+        private int size;
+
+        TopHits(int capacity) {
+            this.heap = new long[capacity];
+        }
+
+        void offer(float score, int id) {
+            long value = ((long) Float.floatToIntBits(score) << 32) | (id & 0xffffffffL);
+            if (this.size < this.heap.length) {
+                int i = this.size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (this.heap[parent] <= value) {
+                        break;
+                    }
+                    this.heap[i] = this.heap[parent];
+                    i = parent;
+                }
+                this.heap[i] = value;
+            } else if (value > this.heap[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= this.size) {
+                        break;
+                    }
+                    if (child + 1 < this.size && this.heap[child + 1] < this.heap[child]) {
+                        child++;
+                    }
+                    if (this.heap[child] >= value) {
+                        break;
+                    }
+                    this.heap[i] = this.heap[child];
+                    i = child;
+                }
+                this.heap[i] = value;
+            }
+        }
+
+        int[] ids(int offset, int limit) {
+            long[] sorted = Arrays.copyOf(this.heap, this.size);
+            Arrays.sort(sorted);
+            int count = Math.max(0, Math.min(limit, this.size - offset));
+            int[] ids = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = (int) sorted[this.size - 1 - offset - i];
+            }
+            return ids;
+        }
+    }
+}
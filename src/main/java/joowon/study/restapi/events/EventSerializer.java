@@ -0,0 +1,104 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Event 를 리플렉션 없이 쓴다. 필드 이름은 미리 인코딩해 두고 필드 순서와 값 형식은 기본 BeanSerializer 와 같다.
+ * EventResourceSerializer, EventPagedResourcesSerializer 도 writeFields 를 같이 쓴다.
+ */
+@JsonComponent
+public class EventSerializer extends JsonSerializer<Event> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString BEGIN_ENROLLMENT_DATE_TIME = new SerializedString("beginEnrollmentDateTime");
+    private static final SerializedString CLOSE_ENROLLMENT_DATE_TIME = new SerializedString("closeEnrollmentDateTime");
+    private static final SerializedString BEGIN_EVENT_DATE_TIME = new SerializedString("beginEventDateTime");
+    private static final SerializedString END_EVENT_DATE_TIME = new SerializedString("endEventDateTime");
+    private static final SerializedString LOCATION = new SerializedString("location");
+    private static final SerializedString BASE_PRICE = new SerializedString("basePrice");
+    private static final SerializedString MAX_PRICE = new SerializedString("maxPrice");
+    private static final SerializedString LIMIT_OF_ENROLLMENT = new SerializedString("limitOfEnrollment");
+    private static final SerializedString OFFLINE = new SerializedString("offline");
+    private static final SerializedString FREE = new SerializedString("free");
+    private static final SerializedString EVENT_STATUS = new SerializedString("eventStatus");
+    private static final SerializedString MANAGER = new SerializedString("manager");
+
+    @Override
+    public void serialize(Event event, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartObject();
+        writeFields(event, gen);
+        gen.writeEndObject();
+    }
+
+    static void writeFields(Event event, JsonGenerator gen) throws IOException {
+        writeNumber(ID, event.getId(), gen);
+        writeString(NAME, event.getName(), gen);
+        writeString(DESCRIPTION, event.getDescription(), gen);
+        writeDateTime(BEGIN_ENROLLMENT_DATE_TIME, event.getBeginEnrollmentDateTime(), gen);
+        writeDateTime(CLOSE_ENROLLMENT_DATE_TIME, event.getCloseEnrollmentDateTime(), gen);
+        writeDateTime(BEGIN_EVENT_DATE_TIME, event.getBeginEventDateTime(), gen);
+        writeDateTime(END_EVENT_DATE_TIME, event.getEndEventDateTime(), gen);
+        writeString(LOCATION, event.getLocation(), gen);
+        gen.writeFieldName(BASE_PRICE);
+        gen.writeNumber(event.getBasePrice());
+        gen.writeFieldName(MAX_PRICE);
+        gen.writeNumber(event.getMaxPrice());
+        gen.writeFieldName(LIMIT_OF_ENROLLMENT);
+        gen.writeNumber(event.getLimitOfEnrollment());
+        gen.writeFieldName(OFFLINE);
+        gen.writeBoolean(event.isOffline());
+        gen.writeFieldName(FREE);
+        gen.writeBoolean(event.isFree());
+        writeString(EVENT_STATUS, event.getEventStatus() == null ? null : event.getEventStatus().name(), gen);
+        gen.writeFieldName(MANAGER);
+        if (event.getManagerId() == null) {
+            gen.writeNull();
+        } else {
+            // AccountIdSerializer 와 같은 {"id": ...}
+            gen.writeStartObject();
+            gen.writeFieldName(ID);
+            gen.writeNumber(event.getManagerId());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeNumber(SerializedString name, Integer value, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeString(SerializedString name, String value, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    /**
+     * jackson-datatype-jsr310 의 기본 형식 (ISO_LOCAL_DATE_TIME)
+     */
+    private static void writeDateTime(SerializedString name, LocalDateTime value, JsonGenerator gen) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package joowon.study.restapi.events;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * 이벤트 조회 조건. 인자가 null 이면 조건을 만들지 않는다(null 반환).
+ */
+public final class EventSpecs {
+
+    private EventSpecs() {
+    }
+
+    public static Specification<Event> eventStatusEquals(EventStatus eventStatus) {
+        return eventStatus == null ? null : (root, query, cb) -> cb.equal(root.get("eventStatus"), eventStatus);
+    }
+
+    public static Specification<Event> beginEventDateTimeBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("beginEventDateTime"), from);
+            }
+            if (from == null) {
+                return cb.lessThan(root.get("beginEventDateTime"), to);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.get("beginEventDateTime"), from),
+                    cb.lessThan(root.get("beginEventDateTime"), to));
+        };
+    }
+
+    public static Specification<Event> freeEquals(Boolean free) {
+        return free == null ? null : (root, query, cb) -> cb.equal(root.get("free"), free);
+    }
+
+    public static Specification<Event> offlineEquals(Boolean offline) {
+        return offline == null ? null : (root, query, cb) -> cb.equal(root.get("offline"), offline);
+    }
+
+    public static Specification<Event> basePriceGreaterThanOrEqualTo(Integer basePrice) {
+        return basePrice == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("basePrice"), basePrice);
+    }
+
+    public static Specification<Event> maxPriceLessThanOrEqualTo(Integer maxPrice) {
+        return maxPrice == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("maxPrice"), maxPrice);
+    }
+
+    public static Specification<Event> managerIdEquals(Integer managerId) {
+        return managerId == null ? null : (root, query, cb) -> cb.equal(root.get("managerId"), managerId);
+    }
+
+    /**
+     * 이벤트 기간이 window 와 겹친다. (EventIntervalIndex 를 쓸 수 없을 때의 SQL)
+     */
+    public static Specification<Event> eventPeriodOverlaps(EventWindow window) {
+        return overlaps("beginEventDateTime", "endEventDateTime", window);
+    }
+
+    public static Specification<Event> enrollmentPeriodOverlaps(EventWindow window) {
+        return overlaps("beginEnrollmentDateTime", "closeEnrollmentDateTime", window);
+    }
+
+    private static Specification<Event> overlaps(String start, String end, EventWindow window) {
+        return window == null ? null : (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get(start), window.getTo()),
+                cb.greaterThanOrEqualTo(root.get(end), window.getFrom()));
+    }
+}
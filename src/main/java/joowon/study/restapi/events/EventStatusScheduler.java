@@ -0,0 +1,211 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 모집 시작 일시가 된 PUBLISHED 이벤트를 BEGAN_ENROLLMENT 로 바꾼다.
+ * <p>
+ * 대기 중인 이벤트를 타이밍 휠에 넣어두고 백그라운드 스레드가 tick 마다 시간을 진행해서, 시각이 된 이벤트만 batch-size 개씩 묶어 UPDATE 한다.
+ * 기동할 때와 resync-interval 마다 PUBLISHED 이벤트를 다시 읽어서 휠을 채우므로 재시작하거나 API 밖에서 상태가 바뀌어도 놓치지 않는다.
+ * (기동 전에 시각이 지난 이벤트는 첫 tick 에 바뀐다) EventController 는 생성, 수정할 때 schedule 을 부른다.
+ * <p>
+ * 벌크 UPDATE 는 엔티티 리스너를 거치지 않으므로 EventCache 와 익명 응답 캐시는 여기서 비운다.
+ * 상태는 검색 색인과 구간 색인에 들어있지 않아서 색인은 그대로 둔다.
+ */
+@Component
+public class EventStatusScheduler implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EventStatusScheduler.class);
+
+    private final EventRepository eventRepository;
+    private final EventCache eventCache;
+    private final EventResponseCache eventResponseCache;
+    private final Clock clock;
+    private final int batchSize;
+    private final Duration tick;
+    private final Duration resyncInterval;
+    private final TimingWheel wheel;
+    private final ScheduledExecutorService ticker;
+
+    private final LongAdder transitionCount = new LongAdder();
+    private final LongAdder transitionLagMillis = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private volatile Duration lastLag = Duration.ZERO;
+
+    public EventStatusScheduler(EventRepository eventRepository, EventCache eventCache,
+                                EventResponseCache eventResponseCache, Clock clock, AppProperties appProperties) {
+        this.eventRepository = eventRepository;
+        this.eventCache = eventCache;
+        this.eventResponseCache = eventResponseCache;
+        this.clock = clock;
+        this.batchSize = appProperties.getEventStatusBatchSize();
+        this.tick = appProperties.getEventStatusTick();
+        this.resyncInterval = appProperties.getEventStatusResyncInterval();
+        this.wheel = new TimingWheel(this.tick.toMillis(), clock.millis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "event-status-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        resync();
+        long tick = this.tick.toMillis();
+        this.ticker.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+        long resync = this.resyncInterval.toMillis();
+        this.ticker.scheduleWithFixedDelay(this::resync, resync, resync, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * PUBLISHED 이고 모집 시작 일시가 있으면 예약하고, 아니면 예약을 취소한다.
+     */
+    public void schedule(Event event) {
+        synchronized (this.wheel) {
+            if (event.getEventStatus() == EventStatus.PUBLISHED && event.getBeginEnrollmentDateTime() != null) {
+                this.wheel.schedule(event.getId(), toMillis(event.getBeginEnrollmentDateTime()));
+            } else {
+                this.wheel.cancel(event.getId());
+            }
+        }
+    }
+
+    public void cancel(int eventId) {
+        synchronized (this.wheel) {
+            this.wheel.cancel(eventId);
+        }
+    }
+
+    /**
+     * DB 의 PUBLISHED 이벤트로 휠을 다시 채운다. 그 사이 상태가 바뀐 이벤트가 휠에 남아 있어도 UPDATE 조건에서 걸러진다.
+     */
+    public void resync() {
+        try {
+            List<EventRepository.EnrollmentSchedule> schedules = this.eventRepository.findEnrollmentSchedules(EventStatus.PUBLISHED);
+            synchronized (this.wheel) {
+                for (EventRepository.EnrollmentSchedule schedule : schedules) {
+                    this.wheel.schedule(schedule.getId(), toMillis(schedule.getBeginEnrollmentDateTime()));
+                }
+            }
+        } catch (RuntimeException e) {
+            // 예외가 나가면 스케줄이 멈추므로 삼킨다
+            this.failureCount.increment();
+            log.warn("Failed to resync event status schedules", e);
+        }
+    }
+
+    /**
+     * 현재 시각까지 휠을 진행하고 시각이 된 이벤트의 상태를 바꾼다. 실패한 묶음은 다음 tick 에 다시 시도한다.
+     */
+    public void tick() {
+        List<long[]> expired = new ArrayList<>();
+        synchronized (this.wheel) {
+            this.wheel.advance(this.clock.millis(), (id, due) -> expired.add(new long[]{id, due}));
+        }
+        for (int from = 0; from < expired.size(); from += this.batchSize) {
+            List<long[]> batch = expired.subList(from, Math.min(from + this.batchSize, expired.size()));
+            try {
+                apply(batch);
+            } catch (RuntimeException e) {
+                this.failureCount.increment();
+                log.warn("Failed to update status of {} events, retrying on the next tick", batch.size(), e);
+                synchronized (this.wheel) {
+                    batch.forEach(entry -> this.wheel.schedule((int) entry[0], entry[1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * 휠에는 그 사이 상태가 바뀌거나 지워진 이벤트가 남아 있을 수 있으므로 실제로 바뀐 이벤트만 센다.
+     * 바꿀 id 를 먼저 읽고 그 id 만 UPDATE 한다. 그 사이에 다른 곳에서 상태를 바꾸면 UPDATE 에서 걸러지고 개수는 updated 로 센다.
+     */
+    private void apply(List<long[]> batch) {
+        List<Integer> ids = new ArrayList<>(batch.size());
+        batch.forEach(entry -> ids.add((int) entry[0]));
+        LocalDateTime now = LocalDateTime.now(this.clock);
+        List<Integer> due = this.eventRepository.findIdsToUpdateEventStatus(ids, EventStatus.PUBLISHED, now);
+        int updated = due.isEmpty() ? 0
+                : this.eventRepository.updateEventStatus(due, EventStatus.PUBLISHED, EventStatus.BEGAN_ENROLLMENT, now);
+        long applied = this.clock.millis();
+        ids.forEach(this.eventCache::evict);
+        if (updated == 0) {
+            return;
+        }
+        this.eventResponseCache.invalidateAll();
+
+        Set<Integer> transitioned = new HashSet<>(due);
+        long maxLag = 0;
+        for (long[] entry : batch) {
+            if (transitioned.contains((int) entry[0])) {
+                long lag = Math.max(0, applied - entry[1]);
+                this.transitionLagMillis.add(lag);
+                maxLag = Math.max(maxLag, lag);
+            }
+        }
+        this.transitionCount.add(updated);
+        this.lastLag = Duration.ofMillis(maxLag);
+    }
+
+    public int getPendingCount() {
+        synchronized (this.wheel) {
+            return this.wheel.size();
+        }
+    }
+
+    public boolean isScheduled(int eventId) {
+        synchronized (this.wheel) {
+            return this.wheel.isScheduled(eventId);
+        }
+    }
+
+    public long getTransitionCount() {
+        return this.transitionCount.sum();
+    }
+
+    /**
+     * 예정 시각부터 UPDATE 가 끝난 시각까지의 합
+     */
+    public Duration getTotalTransitionLag() {
+        return Duration.ofMillis(this.transitionLagMillis.sum());
+    }
+
+    /**
+     * 마지막 묶음의 가장 긴 지연
+     */
+    public Duration getLastLag() {
+        return this.lastLag;
+    }
+
+    public long getFailureCount() {
+        return this.failureCount.sum();
+    }
+
+    @Override
+    public void destroy() {
+        this.ticker.shutdownNow();
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(this.clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -1,5 +1,6 @@
 package joowon.study.restapi.events;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
 
@@ -8,20 +9,31 @@ import java.time.LocalDateTime;
 @Component
 public class EventValidator {
 
+    private final MeterRegistry meterRegistry;
+
+    public EventValidator(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     public void validate(EventDto eventDto, Errors errors) {
         if(eventDto.getBasePrice() > eventDto.getMaxPrice() && eventDto.getMaxPrice() > 0) {
-            errors.rejectValue("basePrice", "wrongValue", "BasePrice is wrong");
-            errors.rejectValue("maxPrice", "wrongValue", "MaxPrice is wrong");
+            reject(errors, "basePrice", "wrongValue", "BasePrice is wrong");
+            reject(errors, "maxPrice", "wrongValue", "MaxPrice is wrong");
         }
 
         LocalDateTime endEventDateTime = eventDto.getEndEventDateTime();
         if(endEventDateTime.isBefore(eventDto.getBeginEventDateTime()) ||
         endEventDateTime.isBefore(eventDto.getCloseEnrollmentDateTime()) ||
         endEventDateTime.isBefore(eventDto.getBeginEnrollmentDateTime())) {
-            errors.rejectValue("endEventDateTime", "wrongValue", "endEventDateTime is wrong");
+            reject(errors, "endEventDateTime", "wrongValue", "endEventDateTime is wrong");
         }
 
         // TODO beginEventDateTime
         // TODO CloseEnrollmentDateTime
     }
+
+    private void reject(Errors errors, String field, String code, String defaultMessage) {
+        errors.rejectValue(field, code, defaultMessage);
+        this.meterRegistry.counter("events.validation.failures", "field", field, "code", code).increment();
+    }
 }
@@ -0,0 +1,47 @@
+package joowon.study.restapi.events;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * overlaps 파라미터 값. "from,to" 형식의 ISO 일시 두 개이고 양 끝을 포함한다.
+ */
+@Getter
+public class EventWindow {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    private EventWindow(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static EventWindow at(LocalDateTime dateTime) {
+        return new EventWindow(dateTime, dateTime);
+    }
+
+    /**
+     * @throws IllegalArgumentException 형식이 틀렸거나 from 이 to 보다 늦은 경우
+     */
+    public static EventWindow parse(String value) {
+        String[] values = value.split(",", -1);
+        if (values.length != 2) {
+            throw new IllegalArgumentException("overlaps must be from,to");
+        }
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = LocalDateTime.parse(values[0].trim());
+            to = LocalDateTime.parse(values[1].trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("overlaps must be ISO date times", e);
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("overlaps from is after to");
+        }
+        return new EventWindow(from, to);
+    }
+}
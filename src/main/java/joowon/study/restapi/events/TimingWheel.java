@@ -0,0 +1,193 @@
+package joowon.study.restapi.events;
+
+import java.util.Arrays;
+
+/**
+ * 이벤트 id 별 예정 시각을 담는 계층형 타이밍 휠. 레벨마다 64 칸이고 아래 레벨 한 바퀴가 위 레벨 한 칸이다.
+ * (tick 1초면 64초, 68분, 73시간, 194일) 그보다 먼 예정은 overflow 에 두고 최상위 레벨이 한 바퀴 돌 때마다 다시 넣는다.
+ * <p>
+ * 예약, 취소는 O(1) 이다. 예정 시각은 id 를 위치로 쓰는 배열에 두고, 칸에는 id 만 넣는다.
+ * 다시 예약하거나 취소해도 예전 칸의 id 는 지우지 않고, 꺼낼 때 배열의 예정 시각과 비교해서 건너뛰거나 다시 넣는다.
+ * 스레드 안전하지 않으므로 호출하는 쪽에서 동기화한다.
+ */
+final class TimingWheel {
+
+    interface Expired {
+        void expired(int id, long dueMillis);
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long tickMillis;
+    private final IntList[][] wheels = new IntList[LEVELS][SLOTS];
+    private final IntList overflow = new IntList();
+    private final IntList ready = new IntList();
+    private long[] dues = new long[0];
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+        for (IntList[] wheel : this.wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new IntList();
+            }
+        }
+    }
+
+    /**
+     * 이미 예약된 id 면 예정 시각을 바꾼다. (같은 시각이면 아무것도 하지 않는다) 지난 시각이면 다음 advance 에서 꺼낸다.
+     */
+    void schedule(int id, long dueMillis) {
+        if (id >= this.dues.length) {
+            int length = this.dues.length;
+            this.dues = Arrays.copyOf(this.dues, Math.max(id + 1, Math.max(1024, length * 2)));
+            Arrays.fill(this.dues, length, this.dues.length, NONE);
+        }
+        if (this.dues[id] == dueMillis) {
+            return;
+        }
+        if (this.dues[id] == NONE) {
+            this.size++;
+        }
+        this.dues[id] = dueMillis;
+        place(id);
+    }
+
+    void cancel(int id) {
+        if (id < this.dues.length && this.dues[id] != NONE) {
+            this.dues[id] = NONE;
+            this.size--;
+        }
+    }
+
+    /**
+     * nowMillis 까지 시간을 진행하면서 예정 시각이 지난 id 를 예정 시각과 함께 넘겨준다. 넘겨준 id 는 예약에서 빠진다.
+     */
+    void advance(long nowMillis, Expired expired) {
+        long targetTick = Math.floorDiv(nowMillis, this.tickMillis);
+        fire(this.ready, expired);
+        while (this.currentTick < targetTick) {
+            this.currentTick++;
+            if ((this.currentTick & mask(LEVELS)) == 0) {
+                cascade(this.overflow);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((this.currentTick & mask(level)) == 0) {
+                    cascade(this.wheels[level][slot(this.currentTick, level)]);
+                }
+            }
+            IntList slot = this.wheels[0][slot(this.currentTick, 0)];
+            fire(slot, expired);
+            fire(this.ready, expired);
+        }
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    long due(int id) {
+        return id < this.dues.length ? this.dues[id] : NONE;
+    }
+
+    boolean isScheduled(int id) {
+        return due(id) != NONE;
+    }
+
+    /**
+     * 현재 tick 과 예정 tick 의 상위 비트가 같은 가장 낮은 레벨에 넣는다.
+     * 그러면 그 레벨의 칸이 현재 칸보다 뒤라서 아직 내려보내지 않은 칸에 들어간다.
+     */
+    private void place(int id) {
+        long dueTick = dueTick(this.dues[id]);
+        if (dueTick <= this.currentTick) {
+            this.ready.add(id);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if ((dueTick >>> (SLOT_BITS * (level + 1))) == (this.currentTick >>> (SLOT_BITS * (level + 1)))) {
+                this.wheels[level][slot(dueTick, level)].add(id);
+                return;
+            }
+        }
+        this.overflow.add(id);
+    }
+
+    private void cascade(IntList slot) {
+        int[] ids = slot.drain();
+        for (int i = 0; i < ids.length; i++) {
+            if (this.dues[ids[i]] != NONE) {
+                place(ids[i]);
+            }
+        }
+    }
+
+    private void fire(IntList slot, Expired expired) {
+        if (slot.size == 0) {
+            return;
+        }
+        int[] ids = slot.drain();
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[i];
+            long due = this.dues[id];
+            if (due == NONE) {
+                // 취소됐거나 같은 id 가 먼저 꺼내졌다
+                continue;
+            }
+            if (dueTick(due) > this.currentTick) {
+                // 더 늦은 시각으로 다시 예약됐다
+                place(id);
+                continue;
+            }
+            this.dues[id] = NONE;
+            this.size--;
+            expired.expired(id, due);
+        }
+    }
+
+    /**
+     * 일찍 꺼내지 않도록 올림한다.
+     */
+    private long dueTick(long dueMillis) {
+        return Math.floorDiv(dueMillis + this.tickMillis - 1, this.tickMillis);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static long mask(int level) {
+        return (1L << (SLOT_BITS * level)) - 1;
+    }
+
+    private static final class IntList {
+
+        private static final int[] EMPTY = new int[0];
+
+        private int[] values = EMPTY;
+        private int size;
+
+        void add(int value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(4, this.size * 2));
+            }
+            this.values[this.size++] = value;
+        }
+
+        /**
+         * 비우면서 담겨 있던 값을 돌려준다. 꺼낸 값을 다시 넣을 수 있도록 새 배열로 바꾼다.
+         */
+        int[] drain() {
+            int[] drained = Arrays.copyOf(this.values, this.size);
+            this.values = EMPTY;
+            this.size = 0;
+            return drained;
+        }
+    }
+}
@@ -1,19 +1,17 @@
 package joowon.study.restapi.index;
 
-import joowon.study.restapi.events.EventController;
+import joowon.study.restapi.common.ApiLinks;
 import org.springframework.hateoas.ResourceSupport;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-
 @RestController
 public class IndexController {
 
     @GetMapping("/api")
     public ResourceSupport index() {
         var index = new ResourceSupport();
-        index.add(linkTo(EventController.class).withRel("events"));
+        index.add(ApiLinks.events());
         return index;
     }
 }
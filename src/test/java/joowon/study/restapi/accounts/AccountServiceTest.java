@@ -1,5 +1,7 @@
 package joowon.study.restapi.accounts;
 
+import joowon.study.restapi.common.AppProperties;
+import joowon.study.restapi.common.TestDescription;
 import org.hamcrest.Matchers;
 import org.junit.Rule;
 import org.junit.Test;
@@ -7,14 +9,24 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.lang.reflect.Proxy;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Fail.fail;
@@ -33,6 +45,12 @@ public class AccountServiceTest {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    AppProperties appProperties;
+
     @Test
     public void findByUsername() {
         // Given
@@ -54,6 +72,15 @@ public class AccountServiceTest {
         assertThat(this.passwordEncoder.matches(password, userDetails.getPassword())).isTrue();
     }
 
+    @Test
+    @TestDescription("bcrypt 가 아닌 id 로 저장된 비밀번호도 확인하고 새 비밀번호는 bcrypt 로 만든다")
+    public void passwordEncoderKeepsOtherIds() {
+        assertThat(this.passwordEncoder.matches("pass", "{noop}pass")).isTrue();
+        assertThat(this.passwordEncoder.matches("pass", "{pbkdf2}" + new Pbkdf2PasswordEncoder().encode("pass"))).isTrue();
+        assertThat(this.passwordEncoder.matches("pass", "{bcrypt}" + new BCryptPasswordEncoder(4).encode("pass"))).isTrue();
+        assertThat(this.passwordEncoder.encode("pass")).startsWith("{bcrypt}");
+    }
+
     @Test
     public void findByUsernameFail() {
         // Expected
@@ -64,4 +91,115 @@ public class AccountServiceTest {
         // When
         accountService.loadUserByUsername(username);
     }
-}
\ No newline at end of file
+
+    @Test
+    @TestDescription("두번째 조회부터는 캐시에서 읽고, 이전 결과의 password 가 지워져도 영향이 없다")
+    public void loadUserByUsernameCached() {
+        String username = "cached@email.com";
+        this.accountService.saveAccount(Account.builder()
+                .email(username)
+                .password("cached")
+                .roles(Set.of(AccountRole.USER))
+                .build());
+        long hits = this.accountService.accountCacheStats().hitCount();
+
+        UserDetails first = this.accountService.loadUserByUsername(username);
+        ((User) first).eraseCredentials();
+        UserDetails second = this.accountService.loadUserByUsername(username);
+
+        assertThat(this.accountService.accountCacheStats().hitCount()).isEqualTo(hits + 1);
+        assertThat(this.passwordEncoder.matches("cached", second.getPassword())).isTrue();
+        assertThat(((AccountAdapter) second).getAccount()).isNotSameAs(((AccountAdapter) first).getAccount());
+    }
+
+    @Test
+    @TestDescription("saveAccount 로 계정이 바뀌면 캐시를 비운다")
+    public void saveAccountEvictsCache() {
+        String username = "evict@email.com";
+        Account account = this.accountService.saveAccount(Account.builder()
+                .email(username)
+                .password("before")
+                .roles(Set.of(AccountRole.USER))
+                .build());
+        this.accountService.loadUserByUsername(username);
+
+        account.setPassword("after");
+        this.accountService.saveAccount(account);
+
+        UserDetails userDetails = this.accountService.loadUserByUsername(username);
+        assertThat(this.passwordEncoder.matches("after", userDetails.getPassword())).isTrue();
+    }
+
+    @Test
+    @TestDescription("DB 에서 읽는 동안 saveAccount 로 바뀌면 예전 비밀번호를 캐시에 남기지 않는다")
+    public void saveAccountWhileLoading() throws Exception {
+        String username = "loading@email.com";
+        Account account = this.accountService.saveAccount(Account.builder()
+                .email(username)
+                .password("before")
+                .roles(Set.of(AccountRole.USER))
+                .build());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean block = new AtomicBoolean(true);
+        // 첫 findByEmail 만 DB 에서 읽은 뒤 멈춘다
+        AccountService accountService = new AccountService();
+        accountService.accountRepository = (AccountRepository) Proxy.newProxyInstance(AccountRepository.class.getClassLoader(),
+                new Class<?>[]{AccountRepository.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(this.accountRepository, args);
+                    if (method.getName().equals("findByEmail") && block.getAndSet(false)) {
+                        loading.countDown();
+                        release.await();
+                    }
+                    return result;
+                });
+        accountService.passwordEncoder = this.passwordEncoder;
+        accountService.appProperties = this.appProperties;
+        accountService.initAccountCache();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserDetails> load = executor.submit(() -> accountService.loadUserByUsername(username));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            account.setPassword("after");
+            Future<Account> save = executor.submit(() -> accountService.saveAccount(account));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(this.passwordEncoder.matches("before", load.get(5, TimeUnit.SECONDS).getPassword())).isTrue();
+            save.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        UserDetails userDetails = accountService.loadUserByUsername(username);
+        assertThat(this.passwordEncoder.matches("after", userDetails.getPassword())).isTrue();
+    }
+
+    @Test
+    @TestDescription("같은 역할 조합이면 같은 권한 Set 을 재사용한다")
+    public void authoritiesInterned() {
+        assertThat(AccountAdapter.authorities(Set.of(AccountRole.ADMIN, AccountRole.USER)))
+                .isSameAs(AccountAdapter.authorities(Set.of(AccountRole.USER, AccountRole.ADMIN)))
+                .extracting("authority")
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_USER");
+        assertThat(AccountAdapter.authorities(Set.of(AccountRole.USER)))
+                .isNotSameAs(AccountAdapter.authorities(Set.of(AccountRole.ADMIN)));
+    }
+
+    @Test
+    @TestDescription("역할이 같은 AccountAdapter 는 같은 권한 Set 인스턴스를 돌려준다")
+    public void accountAdapterSharesAuthorities() {
+        Account first = Account.builder().email("first@email.com").password("pass")
+                .roles(Set.of(AccountRole.ADMIN, AccountRole.USER)).build();
+        Account second = Account.builder().email("second@email.com").password("pass")
+                .roles(Set.of(AccountRole.USER, AccountRole.ADMIN)).build();
+        Account user = Account.builder().email("user@email.com").password("pass")
+                .roles(Set.of(AccountRole.USER)).build();
+
+        assertThat(new AccountAdapter(first).getAuthorities()).isSameAs(new AccountAdapter(second).getAuthorities());
+        assertThat(new AccountAdapter(first).getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(new AccountAdapter(user).getAuthorities()).isNotSameAs(new AccountAdapter(first).getAuthorities());
+    }
+}
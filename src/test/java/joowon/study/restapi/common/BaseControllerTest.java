@@ -13,6 +13,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -30,4 +32,30 @@ public class BaseControllerTest {
 
     @Autowired
     protected ModelMapper modelMapper;
+
+    /**
+     * 마지막으로 보낸 요청이 실행한 SQL 문 수. 배치 실행 한번은 1 로 센다.
+     */
+    protected void assertSelectCount(int expected) {
+        assertStatementCount(SqlStatementCounts.Type.SELECT, expected);
+    }
+
+    protected void assertInsertCount(int expected) {
+        assertStatementCount(SqlStatementCounts.Type.INSERT, expected);
+    }
+
+    protected void assertUpdateCount(int expected) {
+        assertStatementCount(SqlStatementCounts.Type.UPDATE, expected);
+    }
+
+    protected void assertDeleteCount(int expected) {
+        assertStatementCount(SqlStatementCounts.Type.DELETE, expected);
+    }
+
+    private void assertStatementCount(SqlStatementCounts.Type type, int expected) {
+        SqlStatementCounts counts = SqlStatementCounts.lastRequest();
+        assertThat(counts.get(type))
+                .as("%s statements of the last request: %s", type, counts)
+                .isEqualTo(expected);
+    }
 }
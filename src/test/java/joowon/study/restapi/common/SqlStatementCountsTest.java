@@ -0,0 +1,35 @@
+package joowon.study.restapi.common;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatementCountsTest {
+
+    @After
+    public void tearDown() {
+        SqlStatementCounts.finishRequest();
+    }
+
+    @Test
+    @TestDescription("요청 사이에서 실행한 SQL 만 센다")
+    public void recordOnlyWithinRequest() {
+        SqlStatementCounts.record("select 1");
+        assertThat(SqlStatementCounts.current().total()).isZero();
+
+        SqlStatementCounts.startRequest();
+        SqlStatementCounts.record("select * from event");
+        SqlStatementCounts.record("update event set name = ?");
+        assertThat(SqlStatementCounts.current().total()).isEqualTo(2);
+        SqlStatementCounts.finishRequest();
+
+        SqlStatementCounts.record("insert into enrollment values (?)");
+        SqlStatementCounts last = SqlStatementCounts.lastRequest();
+        assertThat(last.get(SqlStatementCounts.Type.SELECT)).isEqualTo(1);
+        assertThat(last.get(SqlStatementCounts.Type.UPDATE)).isEqualTo(1);
+        assertThat(last.get(SqlStatementCounts.Type.INSERT)).isZero();
+        assertThat(last.getStatements()).containsExactly("select * from event", "update event set name = ?");
+        assertThat(SqlStatementCounts.current().total()).isZero();
+    }
+}
@@ -0,0 +1,118 @@
+package joowon.study.restapi.config;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdmissionControlledPasswordEncoderTest {
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    AdmissionControlledPasswordEncoder passwordEncoder;
+
+    @After
+    public void tearDown() {
+        this.release.countDown();
+        if (this.passwordEncoder != null) {
+            this.passwordEncoder.destroy();
+        }
+    }
+
+    @Test
+    @TestDescription("해싱 스레드와 대기열이 모두 차면 기다리지 않고 거절한다")
+    public void rejectWhenSaturated() throws Exception {
+        this.passwordEncoder = new AdmissionControlledPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofMillis(1500));
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> this.passwordEncoder.matches("a", "a"));
+        assertThat(this.started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> this.passwordEncoder.matches("b", "b"));
+        waitForQueueDepth(1);
+
+        assertThatThrownBy(() -> this.passwordEncoder.matches("c", "c"))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .satisfies(e -> assertThat(((PasswordHashingRejectedException) e).getRetryAfterHeader()).isEqualTo("2"));
+        assertThat(this.passwordEncoder.getRejectedCount()).isEqualTo(1);
+
+        this.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(this.passwordEncoder.getHashCount()).isEqualTo(2);
+        assertThat(this.passwordEncoder.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @TestDescription("TokenEndpoint 에서 거절되면 503 과 Retry-After 로 응답한다")
+    public void translateToServiceUnavailable() throws Exception {
+        ResponseEntity<OAuth2Exception> response = new TokenEndpointExceptionTranslator()
+                .translate(new PasswordHashingRejectedException(Duration.ofSeconds(3)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(response.getBody().getOAuth2ErrorCode()).isEqualTo("temporarily_unavailable");
+    }
+
+    @Test
+    @TestDescription("클라이언트 인증 필터에서 거절되어도 503 과 Retry-After 로 응답한다")
+    public void filterToServiceUnavailable() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                throw new PasswordHashingRejectedException(Duration.ofSeconds(1));
+            }
+        });
+
+        new PasswordHashingRejectedFilter().doFilter(new MockHttpServletRequest("POST", "/oauth/token"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("temporarily_unavailable");
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        for (int i = 0; i < 500 && this.passwordEncoder.getQueueDepth() < depth; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(this.passwordEncoder.getQueueDepth()).isEqualTo(depth);
+    }
+}
@@ -0,0 +1,163 @@
+package joowon.study.restapi.config;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedInMemoryTokenStoreTest {
+
+    BoundedInMemoryTokenStore tokenStore;
+
+    @After
+    public void tearDown() {
+        if (this.tokenStore != null) {
+            this.tokenStore.destroy();
+        }
+    }
+
+    @Test
+    @TestDescription("저장한 토큰과 리프레시 토큰을 읽고 지울 수 있다")
+    public void storeReadRemove() {
+        this.tokenStore = new BoundedInMemoryTokenStore(10, Duration.ofHours(1));
+        OAuth2Authentication authentication = authentication("myApp", "user");
+        DefaultOAuth2AccessToken accessToken = accessToken("access", "refresh", 60_000);
+
+        this.tokenStore.storeAccessToken(accessToken, authentication);
+        this.tokenStore.storeRefreshToken(accessToken.getRefreshToken(), authentication);
+
+        assertThat(this.tokenStore.readAccessToken("access")).isEqualTo(accessToken);
+        assertThat(this.tokenStore.readAuthentication("access")).isEqualTo(authentication);
+        assertThat(this.tokenStore.getAccessToken(authentication)).isEqualTo(accessToken);
+        assertThat(this.tokenStore.findTokensByClientId("myApp")).containsExactly(accessToken);
+        assertThat(this.tokenStore.findTokensByClientIdAndUserName("myApp", "user")).containsExactly(accessToken);
+        assertThat(this.tokenStore.readAuthenticationForRefreshToken(accessToken.getRefreshToken())).isEqualTo(authentication);
+
+        this.tokenStore.removeAccessTokenUsingRefreshToken(accessToken.getRefreshToken());
+        this.tokenStore.removeRefreshToken(accessToken.getRefreshToken());
+
+        assertThat(this.tokenStore.readAccessToken("access")).isNull();
+        assertThat(this.tokenStore.readRefreshToken("refresh")).isNull();
+        assertThat(this.tokenStore.getAccessToken(authentication)).isNull();
+        assertThat(this.tokenStore.findTokensByClientId("myApp")).isEmpty();
+        assertThat(this.tokenStore.getAccessTokenCount()).isZero();
+    }
+
+    @Test
+    @TestDescription("최대치를 넘으면 가장 먼저 만료될 토큰부터 지운다")
+    public void evictSoonestToExpire() {
+        this.tokenStore = new BoundedInMemoryTokenStore(2, Duration.ofHours(1));
+
+        this.tokenStore.storeAccessToken(accessToken("a", null, 30_000), authentication("myApp", "a"));
+        this.tokenStore.storeAccessToken(accessToken("b", null, 10_000), authentication("myApp", "b"));
+        this.tokenStore.storeAccessToken(accessToken("c", null, 20_000), authentication("myApp", "c"));
+
+        assertThat(this.tokenStore.getAccessTokenCount()).isEqualTo(2);
+        assertThat(this.tokenStore.getEvictionCount()).isEqualTo(1);
+        assertThat(this.tokenStore.readAccessToken("b")).isNull();
+        assertThat(this.tokenStore.readAccessToken("a")).isNotNull();
+        assertThat(this.tokenStore.readAccessToken("c")).isNotNull();
+    }
+
+    @Test
+    @TestDescription("sweep 은 만료된 토큰만 지운다")
+    public void sweepExpired() {
+        this.tokenStore = new BoundedInMemoryTokenStore(10, Duration.ofHours(1));
+        OAuth2Authentication authentication = authentication("myApp", "user");
+        DefaultOAuth2AccessToken expired = accessToken("expired", "expired-refresh", -1_000);
+        this.tokenStore.storeAccessToken(expired, authentication);
+        this.tokenStore.storeRefreshToken(expired.getRefreshToken(), authentication);
+        this.tokenStore.storeAccessToken(accessToken("alive", null, 60_000), authentication("myApp", "other"));
+
+        this.tokenStore.sweep();
+
+        assertThat(this.tokenStore.readAccessToken("expired")).isNull();
+        assertThat(this.tokenStore.readRefreshToken("expired-refresh")).isNull();
+        assertThat(this.tokenStore.readAccessToken("alive")).isNotNull();
+        assertThat(this.tokenStore.getExpiredCount()).isEqualTo(2);
+        assertThat(this.tokenStore.getSweepCount()).isEqualTo(1);
+        assertThat(this.tokenStore.findTokensByClientIdAndUserName("myApp", "user")).isEmpty();
+    }
+
+    @Test
+    @TestDescription("리프레시 토큰을 계속 돌려도 힙이 일정하게 유지된다 (-DtokenStore.soak=true 일 때만, -DtokenStore.soak.grants 로 횟수 조절)")
+    public void soak() {
+        Assume.assumeTrue("-DtokenStore.soak=true 일 때만 실행", Boolean.getBoolean("tokenStore.soak"));
+        int grants = Integer.getInteger("tokenStore.soak.grants", 1_000_000);
+        int maximumSize = 10_000;
+        int checkpoints = 5;
+        this.tokenStore = new BoundedInMemoryTokenStore(maximumSize, Duration.ofMillis(50));
+
+        // 최대치까지 찬 뒤를 기준으로 잡고, 그 뒤로 여러 지점에서 힙이 기준보다 늘지 않았는지 본다
+        int warmUp = grants / 10;
+        long baseline = 0;
+        List<Long> usedHeaps = new ArrayList<>();
+        for (int i = 0; i < grants; i++) {
+            OAuth2Authentication authentication = authentication("myApp", "user" + (i % 50_000));
+            // 절반은 곧 만료되고 절반은 오래 살아서 스위퍼와 최대치 제한이 함께 동작한다
+            long ttl = i % 2 == 0 ? -1 : 3_600_000;
+            DefaultOAuth2AccessToken accessToken = accessToken("access-" + i, "refresh-" + i, ttl);
+            this.tokenStore.storeAccessToken(accessToken, authentication);
+            this.tokenStore.storeRefreshToken(accessToken.getRefreshToken(), authentication);
+
+            if (i == warmUp) {
+                baseline = usedHeap();
+            } else if (i > warmUp && (i - warmUp) % ((grants - warmUp) / checkpoints) == 0) {
+                usedHeaps.add(usedHeap());
+            }
+        }
+        this.tokenStore.sweep();
+        usedHeaps.add(usedHeap());
+
+        assertThat(this.tokenStore.getAccessTokenCount()).isLessThanOrEqualTo(maximumSize);
+        assertThat(this.tokenStore.getRefreshTokenCount()).isLessThanOrEqualTo(maximumSize);
+        assertThat(this.tokenStore.getEvictionCount() + this.tokenStore.getExpiredCount()).isPositive();
+        assertThat(usedHeaps.size()).isGreaterThanOrEqualTo(checkpoints);
+        long limit = baseline + 64 * 1024 * 1024;
+        assertThat(usedHeaps).allSatisfy(used -> assertThat(used).isLessThan(limit));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static DefaultOAuth2AccessToken accessToken(String value, String refreshValue, long ttlMillis) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(value);
+        token.setExpiration(new Date(System.currentTimeMillis() + ttlMillis));
+        if (refreshValue != null) {
+            OAuth2RefreshToken refreshToken = new DefaultExpiringOAuth2RefreshToken(refreshValue,
+                    new Date(System.currentTimeMillis() + ttlMillis));
+            token.setRefreshToken(refreshToken);
+        }
+        return token;
+    }
+
+    private static OAuth2Authentication authentication(String clientId, String username) {
+        Set<String> scope = Collections.singleton("read");
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), clientId,
+                AuthorityUtils.NO_AUTHORITIES, true, scope, null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(username, "N/A",
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        return new OAuth2Authentication(request, user);
+    }
+}
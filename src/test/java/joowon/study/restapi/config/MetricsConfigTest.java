@@ -0,0 +1,110 @@
+package joowon.study.restapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import joowon.study.restapi.common.AppProperties;
+import joowon.study.restapi.common.BaseControllerTest;
+import joowon.study.restapi.common.TestDescription;
+import joowon.study.restapi.events.EventDto;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsConfigTest extends BaseControllerTest {
+
+    @Autowired
+    AppProperties appProperties;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @TestDescription("메트릭 엔드포인트는 ADMIN 만 볼 수 있다")
+    public void metricsEndpointRequiresAdmin() throws Exception {
+        this.mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+
+        this.mockMvc.perform(get("/actuator/metrics")
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(appProperties.getUserUsername(), appProperties.getUserPassword())))
+                .andExpect(status().isForbidden());
+
+        this.mockMvc.perform(get("/actuator/metrics")
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(appProperties.getAdminUsername(), appProperties.getAdminPassword())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("names").isArray());
+
+        this.mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @TestDescription("엔드포인트별 타이머, 요청별 JPA 통계, 토큰 저장소, 해싱 메트릭을 기록한다")
+    public void requestMetrics() throws Exception {
+        String bearerToken = bearerToken(appProperties.getUserUsername(), appProperties.getUserPassword());
+
+        this.mockMvc.perform(get("/api/events").param("page", "0").param("size", "5"))
+                .andExpect(status().isOk());
+
+        assertThat(this.meterRegistry.find("http.server.requests").tag("uri", "/api/events").timer()).isNotNull();
+        assertThat(this.meterRegistry.find("http.server.requests").tag("uri", "/oauth/token").timer()).isNotNull();
+        assertThat(this.meterRegistry.find("jpa.request.queries")
+                .tags("method", "GET", "uri", "/api/events").summary().max()).isPositive();
+        assertThat(this.meterRegistry.find("jpa.request.queries").tag("uri", "/oauth/token").summary()).isNotNull();
+        assertThat(this.meterRegistry.find("hibernate.statements").functionCounter()).isNotNull();
+        assertThat(this.meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(this.meterRegistry.find("oauth2.token.store.size").tag("type", "access").gauge().value()).isPositive();
+        assertThat(this.meterRegistry.find("password.hashing").functionTimer().count()).isPositive();
+        assertThat(bearerToken).isNotEmpty();
+    }
+
+    @Test
+    @TestDescription("EventValidator 가 거절하면 필드와 코드별로 센다")
+    public void validationFailureCounter() throws Exception {
+        double before = validationFailures("basePrice");
+        EventDto eventDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(10000)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+
+        this.mockMvc.perform(post("/api/events")
+                    .header(HttpHeaders.AUTHORIZATION, bearerToken(appProperties.getUserUsername(), appProperties.getUserPassword()))
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .content(this.objectMapper.writeValueAsString(eventDto)))
+                .andExpect(status().isBadRequest());
+
+        assertThat(validationFailures("basePrice")).isEqualTo(before + 1);
+    }
+
+    private double validationFailures(String field) {
+        var counter = this.meterRegistry.find("events.validation.failures").tags("field", field, "code", "wrongValue").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private String bearerToken(String username, String password) throws Exception {
+        var responseBody = this.mockMvc.perform(post("/oauth/token")
+                    .with(httpBasic(appProperties.getClientId(), appProperties.getClientSecret()))
+                    .param("username", username)
+                    .param("password", password)
+                    .param("grant_type", "password"))
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + new JacksonJsonParser().parseMap(responseBody).get("access_token");
+    }
+}
@@ -0,0 +1,115 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EnrollmentSeatsTest {
+
+    @Test
+    @TestDescription("한도까지만 받고 같은 계정은 한번만 받는다")
+    public void reserve() {
+        EnrollmentSeats seats = new EnrollmentSeats(id -> Collections.emptyList());
+
+        assertThat(seats.reserve(1, 10, 2)).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        assertThat(seats.reserve(1, 10, 2)).isEqualTo(EnrollmentSeats.Reservation.ALREADY_ENROLLED);
+        assertThat(seats.reserve(1, 11, 2)).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        assertThat(seats.reserve(1, 12, 2)).isEqualTo(EnrollmentSeats.Reservation.FULL);
+        // 마감된 뒤에도 이미 신청한 계정은 중복으로 알려준다
+        assertThat(seats.reserve(1, 11, 2)).isEqualTo(EnrollmentSeats.Reservation.ALREADY_ENROLLED);
+        assertThat(seats.reserve(2, 12, 2)).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        assertThat(seats.taken(1)).isEqualTo(2);
+    }
+
+    @Test
+    @TestDescription("처음 찾을 때 저장된 신청으로 채우고, 돌려준 자리는 한번만 빼고, 장부에서 빼면 다시 읽는다")
+    public void loadAndEvict() {
+        AtomicInteger loads = new AtomicInteger();
+        EnrollmentSeats seats = new EnrollmentSeats(id -> {
+            loads.incrementAndGet();
+            return List.of(10, 11);
+        });
+
+        assertThat(seats.reserve(1, 10, 3)).isEqualTo(EnrollmentSeats.Reservation.ALREADY_ENROLLED);
+        assertThat(seats.reserve(1, 12, 3)).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        assertThat(seats.reserve(1, 13, 3)).isEqualTo(EnrollmentSeats.Reservation.FULL);
+        seats.release(1, 12);
+        seats.release(1, 12);
+        assertThat(seats.taken(1)).isEqualTo(2);
+        assertThat(loads.get()).isEqualTo(1);
+
+        seats.evict(1);
+        assertThat(seats.taken(1)).isEqualTo(2);
+        assertThat(seats.reserve(1, 13, 3)).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @TestDescription("스레드 64 개가 이벤트 여러개에 동시에 신청해도 한도를 넘겨 받지 않고 계정마다 한 자리만 준다")
+    public void reserve_concurrently() throws Exception {
+        int events = 4;
+        int limit = 500;
+        int accounts = 5_000;
+        int threads = 64;
+        AtomicInteger loads = new AtomicInteger();
+        EnrollmentSeats seats = new EnrollmentSeats(id -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        });
+        Map<Integer, Set<Integer>> enrolled = new ConcurrentHashMap<>();
+        Map<EnrollmentSeats.Reservation, LongAdder> results = new EnumMap<>(EnrollmentSeats.Reservation.class);
+        for (EnrollmentSeats.Reservation reservation : EnrollmentSeats.Reservation.values()) {
+            results.put(reservation, new LongAdder());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                // 같은 계정이 여러 스레드에서 두번씩 신청한다
+                for (int i = 0; i < accounts * 2; i++) {
+                    int accountId = (i * 31 + thread * 7) % accounts;
+                    int eventId = (i + thread) % events;
+                    EnrollmentSeats.Reservation reservation = seats.reserve(eventId, accountId, limit);
+                    results.get(reservation).increment();
+                    if (reservation == EnrollmentSeats.Reservation.ENROLLED) {
+                        assertThat(enrolled.computeIfAbsent(eventId, id -> ConcurrentHashMap.newKeySet()).add(accountId)).isTrue();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(results.get(EnrollmentSeats.Reservation.ENROLLED).sum()).isEqualTo((long) events * limit);
+        for (int eventId = 0; eventId < events; eventId++) {
+            assertThat(enrolled.get(eventId)).hasSize(limit);
+            assertThat(seats.taken(eventId)).isEqualTo(limit);
+        }
+        assertThat(loads.get()).isEqualTo(events);
+    }
+}
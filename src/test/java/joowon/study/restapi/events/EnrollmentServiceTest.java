@@ -0,0 +1,185 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.AppProperties;
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class EnrollmentServiceTest {
+
+    @Autowired
+    EnrollmentService enrollmentService;
+
+    @Autowired
+    EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    AppProperties appProperties;
+
+    @Before
+    public void setup() {
+        this.eventRepository.deleteAll();
+        this.enrollmentRepository.deleteAll();
+    }
+
+    @Test
+    @TestDescription("스레드 200 개가 3000 명으로 자리 150 개에 동시에 신청해도 150 명만 저장한다")
+    public void enroll_concurrently() throws Exception {
+        Event event = save(150);
+        int threads = 200;
+        int accounts = 3_000;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger enrolled = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int accountId;
+                while ((accountId = next.getAndIncrement()) < accounts) {
+                    if (this.enrollmentService.enroll(event, enrollment(event, accountId)) == EnrollmentSeats.Reservation.ENROLLED) {
+                        enrolled.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        this.enrollmentService.flush();
+
+        assertThat(enrolled.get()).isEqualTo(150);
+        assertThat(this.enrollmentService.getTakenSeats(event.getId())).isEqualTo(150);
+        assertThat(this.enrollmentRepository.countByEventId(event.getId())).isEqualTo(150);
+        assertThat(this.enrollmentRepository.findAccountIds(event.getId())).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @TestDescription("다시 기동하면 저장된 신청부터 세서 남은 자리만 받는다")
+    public void enroll_afterRestart() {
+        Event event = save(10);
+        for (int accountId = 1; accountId <= 4; accountId++) {
+            this.enrollmentService.enroll(event, enrollment(event, accountId));
+        }
+        this.enrollmentService.flush();
+
+        EnrollmentService restarted = new EnrollmentService(this.enrollmentRepository, this.appProperties);
+        try {
+            assertThat(restarted.getTakenSeats(event.getId())).isEqualTo(4);
+            assertThat(restarted.enroll(event, enrollment(event, 1))).isEqualTo(EnrollmentSeats.Reservation.ALREADY_ENROLLED);
+            for (int accountId = 5; accountId <= 10; accountId++) {
+                assertThat(restarted.enroll(event, enrollment(event, accountId))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+            }
+            assertThat(restarted.enroll(event, enrollment(event, 11))).isEqualTo(EnrollmentSeats.Reservation.FULL);
+        } finally {
+            restarted.destroy();
+        }
+        assertThat(this.enrollmentRepository.countByEventId(event.getId())).isEqualTo(10);
+    }
+
+    @Test
+    @TestDescription("다른 곳에서 먼저 저장된 신청은 버리고 그 자리는 잡힌 채로 둔다")
+    public void flush_duplicate() {
+        Event event = save(2);
+        assertThat(this.enrollmentService.getTakenSeats(event.getId())).isZero();
+        this.enrollmentRepository.save(enrollment(event, 1));
+        long dropped = this.enrollmentService.getDroppedCount();
+
+        assertThat(this.enrollmentService.enroll(event, enrollment(event, 1))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        assertThat(this.enrollmentService.enroll(event, enrollment(event, 2))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        this.enrollmentService.flush();
+
+        assertThat(this.enrollmentService.getDroppedCount()).isEqualTo(dropped + 1);
+        assertThat(this.enrollmentService.getTakenSeats(event.getId())).isEqualTo(2);
+        assertThat(this.enrollmentService.enroll(event, enrollment(event, 3))).isEqualTo(EnrollmentSeats.Reservation.FULL);
+        assertThat(this.enrollmentRepository.countByEventId(event.getId())).isEqualTo(2);
+    }
+
+    @Test
+    @TestDescription("유니크 제약이 아닌 제약에 걸린 신청은 버리면서 자리를 돌려준다")
+    public void flush_invalid() {
+        Event event = save(1);
+        Enrollment invalid = enrollment(event, 1);
+        invalid.setEnrolledAt(null);
+        long dropped = this.enrollmentService.getDroppedCount();
+
+        assertThat(this.enrollmentService.enroll(event, invalid)).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        this.enrollmentService.flush();
+
+        assertThat(this.enrollmentService.getDroppedCount()).isEqualTo(dropped + 1);
+        assertThat(this.enrollmentService.getTakenSeats(event.getId())).isZero();
+        assertThat(this.enrollmentService.enroll(event, enrollment(event, 2))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        this.enrollmentService.flush();
+        assertThat(this.enrollmentRepository.findAccountIds(event.getId())).containsExactly(2);
+    }
+
+    @Test
+    @TestDescription("저장을 기다리는 신청이 max-pending 에 닿으면 자리를 잡지 않고 거절한다")
+    public void enroll_backlogged() {
+        Event event = save(10);
+        AppProperties properties = new AppProperties();
+        properties.setEnrollmentMaxPending(2);
+        properties.setEnrollmentFlushInterval(Duration.ofHours(1));
+        EnrollmentService service = new EnrollmentService(this.enrollmentRepository, properties);
+        try {
+            assertThat(service.enroll(event, enrollment(event, 1))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+            assertThat(service.enroll(event, enrollment(event, 2))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+            assertThat(service.enroll(event, enrollment(event, 3))).isEqualTo(EnrollmentSeats.Reservation.BACKLOGGED);
+            assertThat(service.getTakenSeats(event.getId())).isEqualTo(2);
+
+            service.flush();
+            assertThat(service.enroll(event, enrollment(event, 3))).isEqualTo(EnrollmentSeats.Reservation.ENROLLED);
+        } finally {
+            service.destroy();
+        }
+        assertThat(this.enrollmentRepository.countByEventId(event.getId())).isEqualTo(3);
+    }
+
+    private Event save(int limitOfEnrollment) {
+        return this.eventRepository.save(Event.builder()
+                .name("enrollment")
+                .beginEnrollmentDateTime(LocalDateTime.now().minusDays(1))
+                .closeEnrollmentDateTime(LocalDateTime.now().plusDays(1))
+                .limitOfEnrollment(limitOfEnrollment)
+                .eventStatus(EventStatus.BEGAN_ENROLLMENT)
+                .build());
+    }
+
+    private static Enrollment enrollment(Event event, int accountId) {
+        return Enrollment.builder()
+                .eventId(event.getId())
+                .accountId(accountId)
+                .enrolledAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.accounts.Account;
+import joowon.study.restapi.accounts.AccountRepository;
+import joowon.study.restapi.accounts.AccountRole;
+import joowon.study.restapi.common.AppProperties;
+import joowon.study.restapi.common.TestDescription;
+import org.hibernate.proxy.HibernateProxy;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class EventCacheTest {
+
+    @Autowired
+    EventCache eventCache;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    AppProperties appProperties;
+
+    Event event;
+
+    @Before
+    public void setup() {
+        Account manager = this.accountRepository.findByEmail("cache@email.com")
+                .orElseGet(() -> this.accountRepository.save(Account.builder()
+                        .email("cache@email.com")
+                        .password("pass")
+                        .roles(Set.of(AccountRole.USER))
+                        .build()));
+        this.event = this.eventRepository.save(Event.builder()
+                .name("cached event")
+                .manager(manager)
+                .build());
+    }
+
+    @Test
+    @TestDescription("두번째 조회부터는 캐시에서 꺼낸다")
+    public void findById_hit() {
+        long hits = eventCache.stats().hitCount();
+        long misses = eventCache.stats().missCount();
+
+        eventCache.findById(event.getId());
+        eventCache.findById(event.getId());
+
+        assertThat(eventCache.stats().missCount()).isEqualTo(misses + 1);
+        assertThat(eventCache.stats().hitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    @TestDescription("캐시된 이벤트를 수정해도 캐시에 반영되지 않고, evict 후에는 다시 읽는다")
+    public void findById_copyAndEvict() {
+        Event cached = eventCache.findById(event.getId()).get();
+        cached.setName("changed");
+        assertThat(eventCache.findById(event.getId()).get().getName()).isEqualTo("cached event");
+
+        this.eventRepository.save(cached);
+        eventCache.evict(event.getId());
+
+        assertThat(eventCache.findById(event.getId()).get().getName()).isEqualTo("changed");
+    }
+
+    @Test
+    @TestDescription("캐시된 이벤트의 manager 는 프록시가 아니라서 세션 밖에서도 lazy loading 이 일어나지 않는다")
+    public void findById_managerDetached() {
+        Event cached = eventCache.findById(event.getId()).get();
+
+        assertThat(cached.getManager()).isNotInstanceOf(HibernateProxy.class);
+        assertThat(cached.getManager().getId()).isEqualTo(event.getManager().getId());
+        assertThat(cached.getManagerId()).isEqualTo(event.getManager().getId());
+    }
+
+    @Test
+    @TestDescription("DB 에서 읽는 동안 evict 하면 읽어온 예전 이벤트를 캐시에 남기지 않는다")
+    public void findById_evictWhileLoading() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean block = new AtomicBoolean(true);
+        // 첫 findById 만 DB 에서 읽은 뒤 멈춘다
+        EventRepository blocking = (EventRepository) Proxy.newProxyInstance(EventRepository.class.getClassLoader(),
+                new Class<?>[]{EventRepository.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(this.eventRepository, args);
+                    if (method.getName().equals("findById") && block.getAndSet(false)) {
+                        loading.countDown();
+                        release.await();
+                    }
+                    return result;
+                });
+        EventCache cache = new EventCache(blocking, this.appProperties);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<Event>> load = executor.submit(() -> cache.findById(this.event.getId()));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // 읽기가 끝난 뒤에 수정을 저장하고 evict 한다 (updateEvent 와 같은 순서)
+            this.event.setName("changed");
+            this.eventRepository.save(this.event);
+            Future<?> evict = executor.submit(() -> cache.evict(this.event.getId()));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(load.get(5, TimeUnit.SECONDS).get().getName()).isEqualTo("cached event");
+            evict.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertThat(cache.findById(this.event.getId()).get().getName()).isEqualTo("changed");
+    }
+
+    @Test
+    @TestDescription("없는 이벤트는 캐시하지 않는다")
+    public void findById_empty() {
+        assertThat(eventCache.findById(-1)).isEmpty();
+    }
+}
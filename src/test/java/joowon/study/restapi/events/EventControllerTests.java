@@ -1,12 +1,23 @@
 package joowon.study.restapi.events;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.JsonPath;
 import joowon.study.restapi.accounts.Account;
 import joowon.study.restapi.accounts.AccountRepository;
 import joowon.study.restapi.accounts.AccountRole;
 import joowon.study.restapi.accounts.AccountService;
 import joowon.study.restapi.common.AppProperties;
 import joowon.study.restapi.common.BaseControllerTest;
+import joowon.study.restapi.common.BinaryMediaTypes;
 import joowon.study.restapi.common.TestDescription;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,13 +27,18 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.oauth2.common.util.Jackson2JsonParser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.restdocs.headers.HeaderDocumentation.*;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.linkWithRel;
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.links;
@@ -50,6 +66,21 @@ public class EventControllerTests extends BaseControllerTest {
     @Autowired
     AppProperties appProperties;
 
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EventCountEstimator eventCountEstimator;
+
+    @Autowired
+    EventIndexLoader eventIndexLoader;
+
+    @Autowired
+    EnrollmentService enrollmentService;
+
+    @Autowired
+    EnrollmentRepository enrollmentRepository;
+
     @Before
     public void setup() {
         this.eventRepository.deleteAll();
@@ -144,6 +175,8 @@ public class EventControllerTests extends BaseControllerTest {
                                     fieldWithPath("_links.profile.href").description("link to update an existing")
                             )
                 ));
+        assertSelectCount(0);
+        assertInsertCount(1);
     }
 
     @Test
@@ -216,6 +249,86 @@ public class EventControllerTests extends BaseControllerTest {
         ;
     }
 
+    @Test
+    @TestDescription("이벤트를 일괄 생성하고 잘못된 항목은 에러로 받기")
+    public void createEvents() throws Exception {
+        EventDto valid = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+        EventDto wrongPrice = valid.toBuilder().basePrice(10000).build();
+        EventDto empty = EventDto.builder().build();
+
+        this.mockMvc.perform(post("/api/events/batch")
+                        .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .accept(MediaTypes.HAL_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, wrongPrice, valid, empty))))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("events.length()").value(2))
+                .andExpect(jsonPath("events[0].id").exists())
+                .andExpect(jsonPath("events[0].free").value(false))
+                .andExpect(jsonPath("events[0]._links.self").exists())
+                .andExpect(jsonPath("errors[0].index").value(1))
+                .andExpect(jsonPath("errors[0].errors[0].code").value("wrongValue"))
+                .andExpect(jsonPath("errors[1].index").value(3))
+                .andExpect(jsonPath("errors[1].errors[0].field").exists())
+                .andExpect(jsonPath("_links.query-events").exists())
+                .andDo(document("create-events"));
+        assertSelectCount(0);
+        assertInsertCount(1);
+    }
+
+    @Test
+    @TestDescription("모든 항목이 잘못되면 일괄 생성 400 응답받기")
+    public void createEvents_Bad_Request() throws Exception {
+        this.mockMvc.perform(post("/api/events/batch")
+                        .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .content(objectMapper.writeValueAsString(List.of(EventDto.builder().build()))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0].index").value(0));
+
+        // null 항목은 500 이 아니라 항목 에러로 알려준다
+        this.mockMvc.perform(post("/api/events/batch")
+                        .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .content("[null]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0].index").value(0));
+
+        EventDto valid = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .build();
+        this.mockMvc.perform(post("/api/events/batch")
+                        .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(valid, null))))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("errors[0].index").value(1))
+                .andExpect(jsonPath("errors[0].errors[0].code").value("wrongValue"));
+    }
+
     @Test
     @TestDescription("30개 이벤트를 10개씩 두번째 페이지 조회하기")
     public void queryEvents() throws Exception {
@@ -278,9 +391,11 @@ public class EventControllerTests extends BaseControllerTest {
                                 fieldWithPath("page.size").description("한 페이지 크기"),
                                 fieldWithPath("page.totalElements").description("총 이벤트 수"),
                                 fieldWithPath("page.totalPages").description("총 페이지 수"),
-                                fieldWithPath("page.number").description("현재 페이지 번호(페이지 번호는 0부터 시작)"))
+                                fieldWithPath("page.number").description("현재 페이지 번호(페이지 번호는 0부터 시작)"),
+                                fieldWithPath("page.total").description("총 이벤트 수의 종류 (EXACT, ESTIMATED, ABSENT)"))
                         ))
         ;
+        assertSelectCount(2);
     }
 
     @Test
@@ -350,9 +465,524 @@ public class EventControllerTests extends BaseControllerTest {
                                 fieldWithPath("page.size").description("한 페이지 크기"),
                                 fieldWithPath("page.totalElements").description("총 이벤트 수"),
                                 fieldWithPath("page.totalPages").description("총 페이지 수"),
-                                fieldWithPath("page.number").description("현재 페이지 번호(페이지 번호는 0부터 시작)"))
+                                fieldWithPath("page.number").description("현재 페이지 번호(페이지 번호는 0부터 시작)"),
+                                fieldWithPath("page.total").description("총 이벤트 수의 종류 (EXACT, ESTIMATED, ABSENT)"))
                 ))
         ;
+        assertSelectCount(2);
+    }
+
+    @Test
+    @TestDescription("상태, 가격, 담당자로 이벤트 목록 필터링하기")
+    public void queryEventsWithFilter() throws Exception {
+        // Given
+        IntStream.range(0, 10).forEach(this::generateEvent);
+        IntStream.range(10, 15).forEach(this::generateEventManager);
+        Event published = this.generateEventManager(15);
+        published.setEventStatus(EventStatus.PUBLISHED);
+        this.eventRepository.save(published);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events")
+                            .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                            .param("manager", "me")
+                            .param("basePriceFrom", "100")
+                            .param("maxPriceTo", "200")
+                            .param("beginEventDateTimeFrom", "2018-11-01T00:00:00"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(6));
+        // 한 페이지에 다 들어가면 count 쿼리는 생략된다
+        assertSelectCount(1);
+
+        this.mockMvc.perform(get("/api/events")
+                            .param("eventStatus", "PUBLISHED")
+                            .param("free", "false")
+                            .param("offline", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(1))
+                .andExpect(jsonPath("_embedded.eventList[0].id").value(published.getId()));
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("total=ABSENT 로 조회하면 count 쿼리 없이 다음 페이지 여부만 받는다")
+    public void queryEvents_absentTotal() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events")
+                            .param("page", "1")
+                            .param("size", "10")
+                            .param("sort", "name,DESC")
+                            .param("total", "ABSENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("page.total").value("ABSENT"))
+                .andExpect(jsonPath("page.totalElements").doesNotExist())
+                .andExpect(jsonPath("page.totalPages").doesNotExist())
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.prev").exists())
+                .andExpect(jsonPath("_links.last").doesNotExist())
+                .andDo(document("query-events-total",
+                        requestParameters(
+                                parameterWithName("page").description("페이지 번호"),
+                                parameterWithName("size").description("한 페이지 크기"),
+                                parameterWithName("sort").description("정렬 옵션 (ex : name,DESC )"),
+                                parameterWithName("total").description("총 이벤트 수 종류 (EXACT, ESTIMATED, ABSENT)")
+                        )));
+        assertSelectCount(1);
+
+        // 마지막 페이지까지 읽으면 정확한 값을 알 수 있다
+        this.mockMvc.perform(get("/api/events")
+                            .param("page", "2")
+                            .param("size", "10")
+                            .param("total", "ABSENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.total").value("EXACT"))
+                .andExpect(jsonPath("page.totalElements").value(30))
+                .andExpect(jsonPath("_links.next").doesNotExist());
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("total=ESTIMATED 로 조회하면 DB 통계로 추정한 총 이벤트 수를 받는다")
+    public void queryEvents_estimatedTotal() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+        this.eventCountEstimator.refresh();
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events")
+                            .param("page", "1")
+                            .param("size", "10")
+                            .param("total", "ESTIMATED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.total").value("ESTIMATED"))
+                .andExpect(jsonPath("page.totalElements").value(30))
+                .andExpect(jsonPath("page.totalPages").value(3))
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.last").doesNotExist());
+        assertSelectCount(1);
+
+        // 필터가 있으면 통계로 추정할 수 없다
+        this.mockMvc.perform(get("/api/events")
+                            .param("size", "10")
+                            .param("eventStatus", "DRAFT")
+                            .param("total", "ESTIMATED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.total").value("ABSENT"))
+                .andExpect(jsonPath("page.totalElements").doesNotExist());
+    }
+
+    @Test
+    @TestDescription("검색어로 이벤트를 점수 순서로 조회하기")
+    public void searchEvents() throws Exception {
+        // Given
+        IntStream.range(0, 15).forEach(this::generateEvent);
+        assertThat(this.eventIndexLoader.rebuild()).isEqualTo(15);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events/search")
+                            .param("q", "Test EVENT")
+                            .param("page", "0")
+                            .param("size", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("_embedded.eventList[0]._links.self").exists())
+                .andExpect(jsonPath("page.totalElements").value(15))
+                .andExpect(jsonPath("_links.profile").exists())
+                .andDo(document("search-events",
+                        links(linkWithRel("first").description("첫번째 페이지 링크"),
+                              linkWithRel("self").description("현재 페이지 링크"),
+                              linkWithRel("next").description("다음 페이지 링크"),
+                              linkWithRel("last").description("마지막 페이지 링크"),
+                              linkWithRel("profile").description("프로파일 링크")
+                        ),
+                        requestParameters(
+                                parameterWithName("q").description("검색어. 모든 단어가 name, description, location 중 하나에 들어있는 이벤트를 찾는다"),
+                                parameterWithName("page").description("페이지 번호"),
+                                parameterWithName("size").description("한 페이지 크기")
+                        )));
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("API 로 생성, 수정한 이벤트는 바로 검색되고 지운 이벤트는 검색되지 않는다")
+    public void searchEvents_incremental() throws Exception {
+        // Given
+        EventDto eventDto = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+        String bearerToken = getBearerToken();
+        MvcResult created = this.mockMvc.perform(post("/api/events")
+                            .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                            .contentType(MediaType.APPLICATION_JSON_UTF8)
+                            .content(this.objectMapper.writeValueAsString(eventDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Integer id = JsonPath.read(created.getResponse().getContentAsString(), "id");
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events/search").param("q", "spring 안양역"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[0].id").value(id));
+
+        eventDto.setName("Kotlin");
+        eventDto.setDescription("REST API Development with Kotlin");
+        this.mockMvc.perform(put("/api/events/{id}", id)
+                            .header(HttpHeaders.AUTHORIZATION, bearerToken)
+                            .contentType(MediaType.APPLICATION_JSON_UTF8)
+                            .content(this.objectMapper.writeValueAsString(eventDto)))
+                .andExpect(status().isOk());
+        this.mockMvc.perform(get("/api/events/search").param("q", "spring"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded").doesNotExist())
+                .andExpect(jsonPath("page.totalElements").value(0));
+        this.mockMvc.perform(get("/api/events/search").param("q", "kotlin"))
+                .andExpect(jsonPath("_embedded.eventList[0].id").value(id));
+
+        this.eventRepository.deleteById(id);
+        this.mockMvc.perform(get("/api/events/search").param("q", "kotlin"))
+                .andExpect(jsonPath("page.totalElements").value(0));
+    }
+
+    @Test
+    @TestDescription("모집 기간이 겹치는 이벤트를 모집 시작 일시 순서로 조회하기")
+    public void queryEnrollingEvents() throws Exception {
+        // Given
+        IntStream.range(0, 10).forEach(i -> {
+            Event event = this.generateEvent(i);
+            event.setBeginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1 + i, 9, 0));
+            event.setCloseEnrollmentDateTime(LocalDateTime.of(2018, 11, 3 + i, 9, 0));
+            this.eventRepository.save(event);
+        });
+        this.eventIndexLoader.rebuild();
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events/enrolling")
+                            .param("overlaps", "2018-11-05T00:00,2018-11-06T00:00")
+                            .param("page", "0")
+                            .param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(3))
+                .andExpect(jsonPath("_embedded.eventList[0].name").value("event 2"))
+                .andExpect(jsonPath("_embedded.eventList[1].name").value("event 3"))
+                .andExpect(jsonPath("_links.profile").exists())
+                .andDo(document("query-enrolling-events",
+                        requestParameters(
+                                parameterWithName("overlaps").description("(optional) 모집 기간과 겹치는 from,to (ISO 형식, 양 끝 포함). 없으면 지금 모집 중인 이벤트"),
+                                parameterWithName("page").description("페이지 번호"),
+                                parameterWithName("size").description("한 페이지 크기")
+                        )));
+        assertSelectCount(1);
+
+        // 2018년 모집은 지금 진행 중이 아니다
+        this.mockMvc.perform(get("/api/events/enrolling"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(0));
+
+        this.mockMvc.perform(get("/api/events/enrolling")
+                            .param("overlaps", "2018-11-06T00:00,2018-11-05T00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @TestDescription("이벤트 기간이 겹치는 이벤트를 조회하면 다른 조건이 없을 때 구간 색인에서 찾는다")
+    public void queryEventsWithOverlaps() throws Exception {
+        // Given
+        IntStream.range(0, 10).forEach(i -> {
+            Event event = this.generateEvent(i);
+            event.setBeginEventDateTime(LocalDateTime.of(2018, 12, 1 + i, 9, 0));
+            event.setEndEventDateTime(LocalDateTime.of(2018, 12, 1 + i, 18, 0));
+            this.eventRepository.save(event);
+        });
+        this.eventIndexLoader.rebuild();
+        String thisWeek = "2018-12-03T00:00,2018-12-09T23:59:59";
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events").param("overlaps", thisWeek))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(7))
+                .andExpect(jsonPath("_embedded.eventList[0].name").value("event 2"));
+        assertSelectCount(1);
+
+        this.mockMvc.perform(get("/api/events")
+                            .param("overlaps", thisWeek)
+                            .param("total", "ABSENT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.total").value("ABSENT"))
+                .andExpect(jsonPath("page.totalElements").doesNotExist())
+                .andExpect(jsonPath("_links.last").doesNotExist());
+
+        // 색인이 찾을 수 있는 범위를 넘어서면 정렬 없는 SQL 로 넘기지 않고 거절한다
+        this.mockMvc.perform(get("/api/events")
+                            .param("overlaps", thisWeek)
+                            .param("page", "500")
+                            .param("size", "20"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("tooMany"));
+
+        // 다른 조건과 함께 주면 SQL 로 찾는다
+        this.mockMvc.perform(get("/api/events")
+                            .param("overlaps", thisWeek)
+                            .param("eventStatus", "DRAFT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(7));
+
+        this.mockMvc.perform(get("/api/events").param("overlaps", "2018-12-03"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongValue"));
+    }
+
+    @Test
+    @TestDescription("검색어가 비어있거나 결과 범위를 넘어서면 400 응답받기")
+    public void searchEvents_Bad_Request() throws Exception {
+        this.mockMvc.perform(get("/api/events/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongValue"));
+
+        this.mockMvc.perform(get("/api/events/search")
+                            .param("q", "spring")
+                            .param("page", "500")
+                            .param("size", "20"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("tooMany"));
+    }
+
+    @Test
+    @TestDescription("인증 없이 manager=me 로 조회하면 401 응답받기")
+    public void queryEventsWithFilter_Unauthorized() throws Exception {
+        this.mockMvc.perform(get("/api/events")
+                            .param("manager", "me"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @TestDescription("필터에 맞는 이벤트 전체를 NDJSON 으로 내보내기")
+    public void exportEvents() throws Exception {
+        // Given
+        IntStream.range(0, 20).forEach(this::generateEvent);
+        Event published = this.generateEvent(20);
+        published.setEventStatus(EventStatus.PUBLISHED);
+        this.eventRepository.save(published);
+
+        // When
+        MvcResult all = this.mockMvc.perform(get("/api/events/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult filtered = this.mockMvc.perform(get("/api/events/export")
+                            .param("eventStatus", "PUBLISHED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = this.mockMvc.perform(asyncDispatch(all))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(21);
+        assertThat(this.objectMapper.readTree(lines[0]).get("name").asText()).isEqualTo("event 0");
+
+        String filteredBody = this.mockMvc.perform(asyncDispatch(filtered))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(filteredBody.split("\n")).hasSize(1);
+        assertThat(this.objectMapper.readTree(filteredBody).get("id").asInt()).isEqualTo(published.getId());
+        // 비동기 스레드에서 실행한 SQL 도 요청에 센다. 커서로 읽는 SELECT 하나만 실행한다
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("30개 이벤트를 커서로 10개씩 두번째 페이지까지 조회하기")
+    public void queryEventsByCursor() throws Exception {
+        // Given
+        IntStream.range(0, 30).forEach(this::generateEvent);
+
+        // When
+        var first = this.mockMvc.perform(get("/api/events")
+                            .param("after", "")
+                            .param("size", "10")
+                            .param("sort", "id,ASC"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page").doesNotExist())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.prev").doesNotExist())
+                .andExpect(jsonPath("_links.profile").exists())
+                .andDo(document("query-events-cursor",
+                        requestParameters(
+                                parameterWithName("after").description("이 커서 다음부터 조회 (빈 값이면 처음부터)"),
+                                parameterWithName("size").description("한 페이지 크기"),
+                                parameterWithName("sort").description("정렬 옵션 (ex : name,DESC )")
+                        )))
+                .andReturn().getResponse().getContentAsString();
+
+        assertSelectCount(1);
+
+        String next = JsonPath.read(first, "_links.next.href");
+        Integer lastId = JsonPath.read(first, "_embedded.eventList[9].id");
+
+        // Then
+        this.mockMvc.perform(get(next))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList.length()").value(10))
+                .andExpect(jsonPath("_embedded.eventList[0].id").value(lastId + 1))
+                .andExpect(jsonPath("_links.next").exists())
+                .andExpect(jsonPath("_links.prev").exists());
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("잘못된 커서로 조회하면 400 응답받기")
+    public void queryEventsByCursor_Bad_Request() throws Exception {
+        this.mockMvc.perform(get("/api/events")
+                            .param("after", "wrong-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("content[0].code").value("wrongValue"));
+    }
+
+    @Test
+    @TestDescription("담당자가 여럿이어도 목록과 단건 조회는 SQL 하나로 끝난다")
+    public void queryEvents_singleStatement() throws Exception {
+        // Given
+        Integer lastId = null;
+        for (int i = 0; i < 5; i++) {
+            Account manager = this.accountRepository.save(Account.builder()
+                    .email("manager" + i + "@email.com")
+                    .password("pass")
+                    .roles(Set.of(AccountRole.USER))
+                    .build());
+            Event event = this.generateEvent(i);
+            event.setManager(manager);
+            lastId = this.eventRepository.save(event).getId();
+        }
+        Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // When & Then
+        statistics.clear();
+        this.mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.eventList[4].manager.id").exists());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Account.class.getName()).getLoadCount()).isZero();
+
+        statistics.clear();
+        this.mockMvc.perform(get("/api/events/{id}", lastId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("manager.id").exists());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Account.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    @TestDescription("CBOR 로 이벤트를 생성하고 HAL 링크가 있는 CBOR 응답받기")
+    public void createEvent_Cbor() throws Exception {
+        ObjectMapper cborMapper = binaryObjectMapper(new CBORFactory());
+        EventDto event = EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+
+        MockHttpServletResponse response = mockMvc.perform(post("/api/events/")
+                        .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                        .contentType(BinaryMediaTypes.APPLICATION_CBOR)
+                        .accept(BinaryMediaTypes.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(event)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, BinaryMediaTypes.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse();
+
+        JsonNode body = cborMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.get("name").asText()).isEqualTo("Spring");
+        assertThat(body.get("beginEnrollmentDateTime").asText()).isEqualTo("2018-11-01T09:18:00");
+        assertThat(body.get("eventStatus").asText()).isEqualTo(EventStatus.DRAFT.name());
+        assertThat(body.at("/_links/self/href").asText()).endsWith("/api/events/" + body.get("id").asInt());
+        assertThat(body.at("/_links/update-event/href").isMissingNode()).isFalse();
+    }
+
+    @Test
+    @TestDescription("Smile 로 이벤트 목록 조회하면 HAL JSON 과 같은 내용을 받는다")
+    public void queryEvents_Smile() throws Exception {
+        IntStream.range(0, 30).forEach(this::generateEvent);
+        ObjectMapper smileMapper = binaryObjectMapper(new SmileFactory());
+
+        byte[] json = this.mockMvc.perform(get("/api/events")
+                        .param("page", "1")
+                        .param("size", "10")
+                        .param("sort", "name,DESC"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = this.mockMvc.perform(get("/api/events")
+                        .accept(BinaryMediaTypes.APPLICATION_SMILE)
+                        .param("page", "1")
+                        .param("size", "10")
+                        .param("sort", "name,DESC"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, BinaryMediaTypes.APPLICATION_SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(smileMapper.readTree(smile)).isEqualTo(objectMapper.readTree(json));
+        assertThat(smile.length).isLessThan(json.length);
+    }
+
+    @Test
+    @TestDescription("표현마다 ETag 가 달라서 JSON ETag 로 CBOR 를 조건부 조회하면 304 가 아니고, 캐시를 거치지 않아도 Vary: Accept 를 받는다")
+    public void getEvent_eTagPerVariant() throws Exception {
+        Event event = this.generateEventManager(100);
+        String token = getBearerToken();
+
+        String json = this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String cbor = this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .accept(BinaryMediaTypes.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(cbor).isNotEqualTo(json);
+        this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .accept(BinaryMediaTypes.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor))
+                .andExpect(status().isNotModified());
+        // 수정은 표현과 상관없이 같은 버전이면 받는다
+        this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .header(HttpHeaders.IF_MATCH, cbor)
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .content(this.objectMapper.writeValueAsString(this.modelMapper.map(event, EventDto.class))))
+                .andExpect(status().isOk());
     }
 
     @Test
@@ -369,6 +999,88 @@ public class EventControllerTests extends BaseControllerTest {
                 .andExpect(jsonPath("_links.self").exists())
                 .andExpect(jsonPath("_links.profile").exists())
                 .andDo(document("get-an-event"));
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("ETag 가 같으면 이벤트 조회에 304 응답받기")
+    public void getEvent_304() throws Exception {
+        // Given
+        Event event = this.generateEventManager(100);
+        String eTag = this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertSelectCount(0);
+    }
+
+    @Test
+    @TestDescription("ETag 가 같으면 이벤트 목록 조회에 304 응답받고, 이벤트가 바뀌면 200 응답받기")
+    public void queryEvents_304() throws Exception {
+        // Given
+        IntStream.range(0, 5).forEach(this::generateEvent);
+        String eTag = this.mockMvc.perform(get("/api/events"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events")
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        this.generateEvent(5);
+        this.mockMvc.perform(get("/api/events")
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("익명 목록 조회는 응답 캐시에서 SQL 없이 응답하고, 이벤트가 바뀌면 다시 조회한다")
+    public void queryEvents_responseCache() throws Exception {
+        // Given
+        IntStream.range(0, 5).forEach(this::generateEvent);
+        String body = this.mockMvc.perform(get("/api/events").param("size", "10").param("sort", "name,DESC"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andReturn().getResponse().getContentAsString();
+
+        // When & Then
+        this.mockMvc.perform(get("/api/events").param("sort", "name,DESC").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(content().string(body));
+        assertSelectCount(0);
+
+        this.generateEvent(5);
+        this.mockMvc.perform(get("/api/events").param("size", "10").param("sort", "name,DESC"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andExpect(jsonPath("page.totalElements").value(6));
+        assertSelectCount(1);
+    }
+
+    @Test
+    @TestDescription("인증된 조회는 응답 캐시를 쓰지 않는다")
+    public void getEvent_responseCacheBypass() throws Exception {
+        Event event = this.generateEventManager(100);
+        String bearerToken = getBearerToken();
+        this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_links.update-event").doesNotExist());
+
+        this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                            .header(HttpHeaders.AUTHORIZATION, bearerToken))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Cache"))
+                .andExpect(jsonPath("_links.update-event").exists());
     }
 
     @Test
@@ -377,6 +1089,7 @@ public class EventControllerTests extends BaseControllerTest {
         // When & Then
         this.mockMvc.perform(get("/api/events/{id}", 1231231))
                 .andExpect(status().isNotFound());
+        assertSelectCount(1);
     }
 
     @Test
@@ -399,13 +1112,58 @@ public class EventControllerTests extends BaseControllerTest {
                 .andExpect(jsonPath("name").value(eventName))
                 .andExpect(jsonPath("_links.self").exists())
                 .andDo(document("update-event"));
+        // 조회한 엔티티가 영속성 컨텍스트에 있어서 save(merge) 할 때 다시 select 하지 않는다
+        assertSelectCount(1);
+        assertUpdateCount(1);
+    }
+
+    @Test
+    @TestDescription("If-Match 가 현재 버전과 다르면 이벤트 수정 실패하기")
+    public void updateEvent_412() throws Exception {
+        // Given
+        Event event = this.generateEventManager(200);
+        String eTag = this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        EventDto eventDto = this.modelMapper.map(event, EventDto.class);
+        eventDto.setName("Updated event");
+
+        this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                                .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                                .content(this.objectMapper.writeValueAsString(eventDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+
+        // When & Then
+        eventDto.setName("Lost update");
+        this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                                .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                                .content(this.objectMapper.writeValueAsString(eventDto)))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+        assertSelectCount(1);
+        assertUpdateCount(0);
+
+        // 담당자가 아니면 If-Match 를 보기 전에 401 로 거절해서 버전이 다르다는 것도 알려주지 않는다
+        Event other = this.generateEvent(201);
+        this.mockMvc.perform(put("/api/events/{id}", other.getId())
+                                .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                                .header(HttpHeaders.IF_MATCH, eTag)
+                                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                                .content(this.objectMapper.writeValueAsString(eventDto)))
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
     }
 
     @Test
     @TestDescription("입력값이 비어있는 경우에 이벤트 수정 실패하기")
     public void updateEvent_400_empty() throws Exception {
         // Given
-        Event event = this.generateEvent(200);
+        Event event = this.generateEventManager(200);
 
         EventDto eventDto = new EventDto();
 
@@ -422,7 +1180,7 @@ public class EventControllerTests extends BaseControllerTest {
     @TestDescription("입력값이 잘못된 경우에 이벤트 수정 실패하기")
     public void updateEvent_400_wrong() throws Exception {
         // Given
-        Event event = this.generateEvent(200);
+        Event event = this.generateEventManager(200);
 
         EventDto eventDto = this.modelMapper.map(event, EventDto.class);
         eventDto.setBasePrice(20000);
@@ -456,6 +1214,97 @@ public class EventControllerTests extends BaseControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @TestDescription("모집 중인 이벤트에 참가 신청하기")
+    public void enrollEvent() throws Exception {
+        // Given
+        Event event = this.generateEnrollingEvent(2);
+        Account user = this.accountRepository.findByEmail(appProperties.getUserUsername()).get();
+
+        // When & Then
+        this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, getBearerToken())
+                .accept(MediaTypes.HAL_JSON))
+                .andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("eventId").value(event.getId()))
+                .andExpect(jsonPath("accountId").value(user.getId()))
+                .andExpect(jsonPath("enrolledAt").exists())
+                .andExpect(jsonPath("_links.event").exists())
+                .andExpect(jsonPath("_links.profile").exists())
+                .andDo(document("enroll-event",
+                        links(linkWithRel("event").description("link to the event"),
+                              linkWithRel("profile").description("link to profile")),
+                        responseFields(
+                                fieldWithPath("eventId").description("identifier of the event"),
+                                fieldWithPath("accountId").description("identifier of the enrolled account"),
+                                fieldWithPath("enrolledAt").description("date time of enrollment"),
+                                subsectionWithPath("_links").description("links")
+                        )));
+
+        // 캐시에 없는 이벤트 하나와, 이벤트를 처음 찾을 때 자리 장부에 채울 신청 계정 목록. 저장은 묶어서 나중에 한다
+        assertSelectCount(2);
+        assertInsertCount(0);
+
+        this.enrollmentService.flush();
+        assertThat(this.enrollmentRepository.findAccountIds(event.getId())).containsExactly(user.getId());
+    }
+
+    @Test
+    @TestDescription("이미 신청했거나 자리가 없으면 409 응답받기")
+    public void enrollEvent_409() throws Exception {
+        Event event = this.generateEnrollingEvent(1);
+        Event full = this.generateEnrollingEvent(0);
+        String token = getBearerToken();
+
+        this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isAccepted());
+        this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId())
+                .header(HttpHeaders.AUTHORIZATION, token))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("content[0].code").value("alreadyEnrolled"));
+        // 이벤트는 캐시에서, 신청 여부는 자리 장부에서 확인한다
+        assertSelectCount(0);
+        this.mockMvc.perform(post("/api/events/{id}/enrollments", full.getId())
+                .header(HttpHeaders.AUTHORIZATION, token))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("content[0].code").value("full"));
+    }
+
+    @Test
+    @TestDescription("모집 기간이 아니거나 공개되지 않은 이벤트에 신청하면 400, 없는 이벤트면 404 응답받기")
+    public void enrollEvent_400() throws Exception {
+        Event draft = this.generateEnrollingEvent(10);
+        draft.setEventStatus(EventStatus.DRAFT);
+        draft = this.eventRepository.save(draft);
+        Event closed = this.generateEvent(300);
+        closed.setEventStatus(EventStatus.BEGAN_ENROLLMENT);
+        closed = this.eventRepository.save(closed);
+        String token = getBearerToken();
+
+        for (Event event : List.of(draft, closed)) {
+            this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId())
+                    .header(HttpHeaders.AUTHORIZATION, token))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("content[0].code").value("notEnrolling"));
+        }
+        this.mockMvc.perform(post("/api/events/{id}/enrollments", 1221313)
+                .header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isNotFound());
+        this.mockMvc.perform(post("/api/events/{id}/enrollments", draft.getId()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static ObjectMapper binaryObjectMapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
     private Event generateEvent(int index) {
 
         Event event = Event.builder()
@@ -494,6 +1343,21 @@ public class EventControllerTests extends BaseControllerTest {
         return jsonParser.parseMap(responseBody).get("access_token").toString();
     }
 
+    private Event generateEnrollingEvent(int limitOfEnrollment) {
+        Event event = Event.builder()
+                .name("enrolling event")
+                .description("test event")
+                .beginEnrollmentDateTime(LocalDateTime.now().minusDays(1))
+                .closeEnrollmentDateTime(LocalDateTime.now().plusDays(1))
+                .beginEventDateTime(LocalDateTime.now().plusDays(2))
+                .endEventDateTime(LocalDateTime.now().plusDays(3))
+                .limitOfEnrollment(limitOfEnrollment)
+                .eventStatus(EventStatus.BEGAN_ENROLLMENT)
+                .build();
+
+        return this.eventRepository.save(event);
+    }
+
     private Event generateEventManager(int index) {
         Optional<Account> getAccount = accountRepository.findByEmail(appProperties.getUserUsername());
         Account user = getAccount.get();
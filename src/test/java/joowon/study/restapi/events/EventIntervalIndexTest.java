@@ -0,0 +1,148 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static joowon.study.restapi.events.EventIntervalIndex.Period.ENROLLMENT;
+import static joowon.study.restapi.events.EventIntervalIndex.Period.EVENT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2019, 1, 1, 0, 0);
+
+    EventIntervalIndex index = new EventIntervalIndex();
+
+    @Test
+    @TestDescription("기간이 겹치는 이벤트를 시작 일시 순서로 찾는다. 양 끝을 포함한다")
+    public void overlaps() {
+        index.index(event(1, day(1), day(3), day(10), day(11)));
+        index.index(event(2, day(2), day(5), day(12), day(12)));
+        index.index(event(3, day(6), day(8), day(20), day(25)));
+
+        assertThat(index.overlaps(ENROLLMENT, day(3), day(3), 0, 10).getIds()).containsExactly(1, 2);
+        assertThat(index.overlaps(ENROLLMENT, day(5), day(6), 0, 10).getIds()).containsExactly(2, 3);
+        assertThat(index.overlaps(ENROLLMENT, day(9), day(30), 0, 10).getIds()).isEmpty();
+        assertThat(index.overlaps(EVENT, day(11), day(21), 0, 10).getIds()).containsExactly(1, 2, 3);
+        assertThat(index.overlaps(EVENT, day(13), day(19), 0, 10).getIds()).isEmpty();
+    }
+
+    @Test
+    @TestDescription("2262 년 이후나 1677 년 이전 일시도 순서대로 찾는다")
+    public void overlaps_farDates() {
+        index.index(event(1, day(1), day(3), day(10), day(11)));
+        index.index(event(2, day(1), day(3), LocalDateTime.of(3000, 1, 1, 0, 0), LocalDateTime.of(3000, 1, 2, 0, 0)));
+        index.index(event(3, day(1), day(3), LocalDateTime.of(1600, 1, 1, 0, 0), LocalDateTime.of(1600, 1, 2, 0, 0)));
+        index.index(event(4, day(1), day(3), LocalDateTime.of(2290, 1, 1, 0, 0), LocalDateTime.of(2290, 1, 1, 0, 0, 0, 1)));
+
+        assertThat(index.overlaps(EVENT, LocalDateTime.of(2019, 1, 1, 0, 0), LocalDateTime.of(2300, 1, 1, 0, 0), 0, 10).getIds())
+                .containsExactly(1, 4);
+        assertThat(index.overlaps(EVENT, LocalDateTime.of(1500, 1, 1, 0, 0), LocalDateTime.of(3500, 1, 1, 0, 0), 0, 10).getIds())
+                .containsExactly(3, 1, 4, 2);
+        assertThat(index.overlaps(EVENT, LocalDateTime.MIN, LocalDateTime.MAX, 0, 10).getTotal()).isEqualTo(4);
+        assertThat(index.overlaps(EVENT, LocalDateTime.of(2290, 1, 1, 0, 0, 0, 1), LocalDateTime.of(2290, 1, 1, 0, 0, 0, 1), 0, 10).getIds())
+                .containsExactly(4);
+        assertThat(index.overlaps(EVENT, LocalDateTime.of(2290, 1, 1, 0, 0, 0, 2), LocalDateTime.MAX, 0, 10).getIds())
+                .containsExactly(2);
+    }
+
+    @Test
+    @TestDescription("기간을 바꾸면 예전 기간으로는 찾을 수 없고 지운 이벤트와 일시가 없는 이벤트는 찾을 수 없다")
+    public void indexAndRemove() {
+        Event event = event(1, day(1), day(3), day(10), day(11));
+        index.index(event);
+        event.setCloseEnrollmentDateTime(day(2));
+        index.index(event);
+        index.index(event(2, day(1), null, day(10), day(11)));
+
+        assertThat(index.overlaps(ENROLLMENT, day(3), day(3), 0, 10).getIds()).isEmpty();
+        assertThat(index.overlaps(ENROLLMENT, day(1), day(1), 0, 10).getIds()).containsExactly(1);
+        assertThat(index.size(ENROLLMENT)).isEqualTo(1);
+        assertThat(index.size(EVENT)).isEqualTo(2);
+
+        index.remove(1);
+        index.remove(100);
+
+        assertThat(index.overlaps(ENROLLMENT, day(1), day(1), 0, 10).getIds()).isEmpty();
+        assertThat(index.overlaps(EVENT, day(10), day(10), 0, 10).getIds()).containsExactly(2);
+    }
+
+    @Test
+    @TestDescription("무작위로 넣고 지워도 전체를 훑은 결과와 같다")
+    public void overlaps_random() {
+        Random random = new Random(7);
+        Map<Integer, Event> events = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(2_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                events.remove(id);
+                continue;
+            }
+            LocalDateTime begin = BASE.plusHours(random.nextInt(24 * 365));
+            Event event = event(id, begin, begin.plusHours(random.nextInt(24 * 30)), begin, begin);
+            index.index(event);
+            events.put(id, event);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = BASE.plusHours(random.nextInt(24 * 400));
+            LocalDateTime to = from.plusHours(random.nextInt(24 * 7));
+            List<Integer> expected = new ArrayList<>();
+            events.values().stream()
+                    .filter(e -> !e.getBeginEnrollmentDateTime().isAfter(to) && !e.getCloseEnrollmentDateTime().isBefore(from))
+                    .sorted(Comparator.comparing(Event::getBeginEnrollmentDateTime).thenComparing(Event::getId))
+                    .forEach(e -> expected.add(e.getId()));
+
+            EventIndexHits hits = index.overlaps(ENROLLMENT, from, to, 5, 20);
+
+            assertThat(hits.getTotal()).isEqualTo(expected.size());
+            assertThat(hits.getIds()).containsExactly(expected.subList(Math.min(5, expected.size()), Math.min(25, expected.size()))
+                    .stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    @Test
+    @TestDescription("overlaps 파라미터는 from,to 형식이고 from 이 to 보다 늦으면 안된다")
+    public void parseWindow() {
+        EventWindow window = EventWindow.parse("2019-01-01T00:00,2019-01-07T23:59:59");
+
+        assertThat(window.getFrom()).isEqualTo(BASE);
+        assertThat(window.getTo()).isEqualTo(LocalDateTime.of(2019, 1, 7, 23, 59, 59));
+        assertThat(parses("2019-01-02T00:00,2019-01-01T00:00")).isFalse();
+        assertThat(parses("2019-01-01")).isFalse();
+        assertThat(parses("a,b")).isFalse();
+    }
+
+    private static boolean parses(String value) {
+        try {
+            EventWindow.parse(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static LocalDateTime day(int day) {
+        return BASE.plusDays(day);
+    }
+
+    private static Event event(int id, LocalDateTime beginEnrollment, LocalDateTime closeEnrollment,
+                               LocalDateTime beginEvent, LocalDateTime endEvent) {
+        return Event.builder()
+                .id(id)
+                .beginEnrollmentDateTime(beginEnrollment)
+                .closeEnrollmentDateTime(closeEnrollment)
+                .beginEventDateTime(beginEvent)
+                .endEventDateTime(endEvent)
+                .build();
+    }
+}
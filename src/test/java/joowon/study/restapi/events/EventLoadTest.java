@@ -0,0 +1,431 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import joowon.study.restapi.accounts.Account;
+import joowon.study.restapi.accounts.AccountRole;
+import joowon.study.restapi.accounts.AccountService;
+import joowon.study.restapi.common.AppProperties;
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 실제 서버(랜덤 포트) + H2 로 띄워서 고정된 동시성으로 API 를 호출하고 처리량과 지연 시간 분포를 본다.
+ * 오래 걸리므로 -Dload=true 일 때만 실행한다.
+ *
+ * <pre>
+ * mvn test -Dtest=EventLoadTest -Dload=true \
+ *     -Dload.concurrency=16 -Dload.warmup=5s -Dload.duration=30s \
+ *     -Dload.accounts=4 -Dload.events=1000 -Dload.mix=create=1,list=5,get=3,update=1
+ * </pre>
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest",
+        "spring.datasource.hikari.jdbc-url=jdbc:h2:mem:loadtest",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+public class EventLoadTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    AccountService accountService;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    EventMapper eventMapper;
+
+    @Autowired
+    AppProperties appProperties;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    HttpClient httpClient;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("-Dload=true 일 때만 실행", Boolean.getBoolean("load"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Test
+    @TestDescription("create/list/get/update 를 섞어서 호출하고 p50/p99, 처리량, 커넥션 사용량을 출력한다")
+    public void load() throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 8);
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("load.warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("load.duration", "20s"));
+        int accounts = Integer.getInteger("load.accounts", 4);
+        int events = Integer.getInteger("load.events", 1000);
+        Map<Operation, Integer> mix = parseMix(System.getProperty("load.mix", "create=1,list=5,get=3,update=1"));
+
+        List<Tenant> tenants = seed(accounts, events);
+        int pages = Math.max(1, events / 20);
+
+        run(tenants, mix, concurrency, warmup, pages, null);
+
+        Report report = new Report(mix.keySet());
+        PoolSampler poolSampler = new PoolSampler(this.dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean());
+        run(tenants, mix, concurrency, duration, pages, report);
+        poolSampler.stop();
+
+        System.out.println(report.format(concurrency, duration));
+        System.out.println(poolSampler.format());
+
+        assertThat(report.total()).isPositive();
+        assertThat(report.serverErrors()).isZero();
+    }
+
+    private void run(List<Tenant> tenants, Map<Operation, Integer> mix, int concurrency, Duration duration,
+                     int pages, Report report) throws Exception {
+        Operation[] wheel = mix.entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Operation[]::new);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<Report>> results = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Tenant tenant = tenants.get(i % tenants.size());
+            results.add(workers.submit(() -> {
+                Report local = new Report(mix.keySet());
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Operation operation = wheel[random.nextInt(wheel.length)];
+                    HttpRequest request = request(operation, tenant, tenants, pages, random);
+                    long start = System.nanoTime();
+                    int status = this.httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    local.record(operation, status, System.nanoTime() - start);
+                }
+                return local;
+            }));
+        }
+        for (Future<Report> result : results) {
+            Report local = result.get();
+            if (report != null) {
+                report.merge(local);
+            }
+        }
+        workers.shutdown();
+    }
+
+    private HttpRequest request(Operation operation, Tenant tenant, List<Tenant> tenants, int pages,
+                                ThreadLocalRandom random) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tenant.accessToken)
+                .header(HttpHeaders.ACCEPT, MediaTypes.HAL_JSON_VALUE)
+                .timeout(Duration.ofSeconds(30));
+        switch (operation) {
+            case CREATE:
+                return builder.uri(uri("/api/events"))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(eventDto(random.nextInt()))))
+                        .build();
+            case LIST:
+                return builder.uri(uri("/api/events?size=20&sort=name,DESC&page=" + random.nextInt(pages)))
+                        .GET()
+                        .build();
+            case GET:
+                Tenant owner = tenants.get(random.nextInt(tenants.size()));
+                return builder.uri(uri("/api/events/" + owner.eventIds.get(random.nextInt(owner.eventIds.size()))))
+                        .GET()
+                        .build();
+            case UPDATE:
+                Integer id = tenant.eventIds.get(random.nextInt(tenant.eventIds.size()));
+                return builder.uri(uri("/api/events/" + id))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE)
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(eventDto(id))))
+                        .build();
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private List<Tenant> seed(int accounts, int events) throws Exception {
+        List<Tenant> tenants = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            String email = "load" + i + "@email.com";
+            Account account = this.accountService.saveAccount(Account.builder()
+                    .email(email)
+                    .password("load")
+                    .roles(Set.of(AccountRole.USER))
+                    .build());
+
+            List<Event> managed = new ArrayList<>();
+            for (int j = i; j < events; j += accounts) {
+                Event event = this.eventMapper.toEvent(eventDto(j));
+                event.setManager(account);
+                event.setEventStatus(EventStatus.DRAFT);
+                event.update();
+                managed.add(event);
+            }
+            List<Integer> ids = this.eventRepository.saveAll(managed).stream()
+                    .map(Event::getId)
+                    .collect(Collectors.toList());
+            tenants.add(new Tenant(accessToken(email, "load"), ids));
+        }
+        return tenants;
+    }
+
+    private String accessToken(String username, String password) throws Exception {
+        String client = this.appProperties.getClientId() + ":" + this.appProperties.getClientSecret();
+        String form = "grant_type=password"
+                + "&username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(uri("/oauth/token"))
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder().encodeToString(client.getBytes(StandardCharsets.UTF_8)))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<String> response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return this.objectMapper.readTree(response.body()).get("access_token").asText();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + this.port + path);
+    }
+
+    private static EventDto eventDto(int index) {
+        return EventDto.builder()
+                .name("load event " + index)
+                .description("load test event")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        return weights;
+    }
+
+    enum Operation {
+        CREATE, LIST, GET, UPDATE
+    }
+
+    static class Tenant {
+        final String accessToken;
+        final List<Integer> eventIds;
+
+        Tenant(String accessToken, List<Integer> eventIds) {
+            this.accessToken = accessToken;
+            this.eventIds = eventIds;
+        }
+    }
+
+    /**
+     * 작업별 지연 시간(ns) 과 응답 코드. 워커마다 따로 모은 뒤 합친다.
+     */
+    static class Report {
+        final Map<Operation, long[]> latencies = new LinkedHashMap<>();
+        final Map<Operation, Integer> counts = new LinkedHashMap<>();
+        final Map<Operation, Map<Integer, Integer>> statuses = new LinkedHashMap<>();
+
+        Report(Set<Operation> operations) {
+            for (Operation operation : operations) {
+                this.latencies.put(operation, new long[1024]);
+                this.counts.put(operation, 0);
+                this.statuses.put(operation, new TreeMap<>());
+            }
+        }
+
+        void record(Operation operation, int status, long nanos) {
+            addLatency(operation, nanos);
+            this.statuses.get(operation).merge(status, 1, Integer::sum);
+        }
+
+        private void addLatency(Operation operation, long nanos) {
+            int count = this.counts.get(operation);
+            long[] values = this.latencies.get(operation);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                this.latencies.put(operation, values);
+            }
+            values[count] = nanos;
+            this.counts.put(operation, count + 1);
+        }
+
+        void merge(Report other) {
+            other.counts.forEach((operation, count) -> {
+                long[] values = other.latencies.get(operation);
+                for (int i = 0; i < count; i++) {
+                    addLatency(operation, values[i]);
+                }
+                Map<Integer, Integer> statuses = this.statuses.get(operation);
+                other.statuses.get(operation).forEach((status, n) -> statuses.merge(status, n, Integer::sum));
+            });
+        }
+
+        long total() {
+            return this.counts.values().stream().mapToLong(Integer::longValue).sum();
+        }
+
+        long serverErrors() {
+            return this.statuses.values().stream()
+                    .flatMap(s -> s.entrySet().stream())
+                    .filter(e -> e.getKey() >= 500)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+
+        String format(int concurrency, Duration duration) {
+            double seconds = duration.toMillis() / 1000.0;
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%n=== load: concurrency=%d, duration=%s, total=%d, throughput=%.1f req/s ===%n",
+                    concurrency, duration, total(), total() / seconds));
+            sb.append(String.format("%-7s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                    "op", "count", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9", "max", "status"));
+            for (Operation operation : this.counts.keySet()) {
+                int count = this.counts.get(operation);
+                long[] sorted = Arrays.copyOf(this.latencies.get(operation), count);
+                Arrays.sort(sorted);
+                sb.append(String.format("%-7s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                        operation, count, count / seconds,
+                        percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                        count == 0 ? 0 : sorted[count - 1] / 1e6, this.statuses.get(operation)));
+            }
+            sb.append(histogram());
+            return sb.toString();
+        }
+
+        /**
+         * 2 배씩 늘어나는 ms 구간별 요청 수.
+         */
+        private String histogram() {
+            long[] buckets = new long[16];
+            this.counts.forEach((operation, count) -> {
+                long[] values = this.latencies.get(operation);
+                for (int i = 0; i < count; i++) {
+                    long micros = Math.max(1, values[i] / 1000 / 250);
+                    int bucket = Math.min(buckets.length - 1, 63 - Long.numberOfLeadingZeros(micros));
+                    buckets[bucket]++;
+                }
+            });
+            StringBuilder sb = new StringBuilder("latency histogram (all operations)\n");
+            long total = Math.max(1, total());
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] == 0) {
+                    continue;
+                }
+                double upper = 0.25 * (1L << (i + 1));
+                int bar = (int) (buckets[i] * 50 / total);
+                sb.append(String.format("  < %8.2f ms %8d %s%n", upper, buckets[i], "#".repeat(bar)));
+            }
+            return sb.toString();
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+    }
+
+    /**
+     * Hikari 풀의 사용 중/대기 커넥션 수를 10ms 마다 기록한다.
+     */
+    static class PoolSampler {
+        final HikariPoolMXBean pool;
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long samples;
+        long activeSum;
+        int activeMax;
+        int waitingMax;
+        int total;
+
+        PoolSampler(HikariPoolMXBean pool) {
+            this.pool = pool;
+            this.scheduler.scheduleAtFixedRate(this::sample, 0, 10, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void sample() {
+            int active = this.pool.getActiveConnections();
+            this.samples++;
+            this.activeSum += active;
+            this.activeMax = Math.max(this.activeMax, active);
+            this.waitingMax = Math.max(this.waitingMax, this.pool.getThreadsAwaitingConnection());
+            this.total = this.pool.getTotalConnections();
+        }
+
+        void stop() throws InterruptedException {
+            this.scheduler.shutdown();
+            this.scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        synchronized String format() {
+            return String.format("hikari: total=%d, active avg=%.2f max=%d, threads awaiting connection max=%d%n",
+                    this.total, this.samples == 0 ? 0.0 : (double) this.activeSum / this.samples, this.activeMax, this.waitingMax);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.accounts.Account;
+import org.junit.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventMapperTest {
+
+    EventMapper eventMapper = new EventMapper();
+
+    ModelMapper modelMapper = new ModelMapper();
+
+    @Test
+    public void toEvent() {
+        EventDto eventDto = eventDto();
+
+        Event event = eventMapper.toEvent(eventDto);
+
+        assertThat(event).isEqualToComparingFieldByField(modelMapper.map(eventDto, Event.class));
+        assertThat(event.getEventStatus()).isEqualTo(EventStatus.DRAFT);
+    }
+
+    @Test
+    public void update() {
+        EventDto eventDto = eventDto();
+        Account manager = Account.builder().id(1).build();
+        Event expected = existingEvent(manager);
+        Event event = existingEvent(manager);
+
+        modelMapper.map(eventDto, expected);
+        eventMapper.update(eventDto, event);
+
+        assertThat(event).isEqualToComparingFieldByField(expected);
+        assertThat(event.getId()).isEqualTo(10);
+        assertThat(event.getManager()).isSameAs(manager);
+    }
+
+    private Event existingEvent(Account manager) {
+        return Event.builder()
+                .id(10)
+                .name("old")
+                .description("old description")
+                .location("서울")
+                .basePrice(1)
+                .maxPrice(2)
+                .eventStatus(EventStatus.PUBLISHED)
+                .manager(manager)
+                .version(3)
+                .build();
+    }
+
+    private EventDto eventDto() {
+        return EventDto.builder()
+                .name("Spring")
+                .description("REST API Development with Spring")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 18))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .build();
+    }
+}
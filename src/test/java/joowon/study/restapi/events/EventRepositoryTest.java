@@ -0,0 +1,113 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.SqlStatementCounts;
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EventSearch 가 만든 조건으로 조회할 때 하이버네이트가 실제로 실행한 SQL 의 실행 계획을 본다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class EventRepositoryTest {
+
+    private static final Sort BEGIN_EVENT = Sort.by("beginEventDateTime");
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @TestDescription("상태 필터는 복합 인덱스를 사용한다")
+    public void statusFilterUsesIndex() {
+        EventSearch search = new EventSearch();
+        search.setEventStatus(EventStatus.PUBLISHED);
+
+        assertThat(explain(search, BEGIN_EVENT)).containsIgnoringCase("IDX_EVENT_STATUS_BEGIN_EVENT");
+    }
+
+    @Test
+    @TestDescription("이벤트 시작일 범위 필터는 인덱스를 사용한다")
+    public void beginEventDateTimeFilterUsesIndex() {
+        EventSearch search = new EventSearch();
+        search.setBeginEventDateTimeFrom(LocalDateTime.of(2018, 11, 1, 0, 0));
+        search.setBeginEventDateTimeTo(LocalDateTime.of(2018, 12, 1, 0, 0));
+
+        assertThat(explain(search, Sort.unsorted())).containsIgnoringCase("IDX_EVENT_BEGIN_EVENT_ID");
+    }
+
+    @Test
+    @TestDescription("담당자 필터는 복합 인덱스를 사용한다")
+    public void managerFilterUsesIndex() {
+        EventSearch search = new EventSearch();
+        search.setManager("1");
+
+        assertThat(explain(search, BEGIN_EVENT)).containsIgnoringCase("IDX_EVENT_MANAGER_BEGIN_EVENT");
+    }
+
+    @Test
+    @TestDescription("가격 필터는 가격 인덱스를 사용한다")
+    public void priceFilterUsesIndex() {
+        EventSearch search = new EventSearch();
+        search.setBasePriceFrom(100);
+
+        assertThat(explain(search, Sort.unsorted())).containsIgnoringCase("IDX_EVENT_BASE_PRICE_ID");
+    }
+
+    @Test
+    @TestDescription("무료, 오프라인 필터는 복합 인덱스를 사용한다")
+    public void freeOfflineFilterUsesIndex() {
+        EventSearch search = new EventSearch();
+        search.setFree(true);
+        search.setOffline(true);
+
+        assertThat(explain(search, BEGIN_EVENT)).containsIgnoringCase("IDX_EVENT_FREE_OFFLINE_BEGIN_EVENT");
+    }
+
+    @Test
+    @TestDescription("커서 조회는 (정렬 키, id) 인덱스를 사용한다")
+    public void cursorSeekUsesIndex() {
+        EventCursor start = EventCursor.start(Sort.by("name"));
+        EventCursor cursor = EventCursor.of(start, Event.builder().id(10).name("event 1").build());
+
+        String plan = explain(Specification.where(cursor.seek(true)), cursor.sort(true));
+
+        assertThat(plan).containsIgnoringCase("IDX_EVENT_NAME_ID");
+    }
+
+    private String explain(EventSearch search, Sort sort) {
+        return explain(search.toSpecification(null), sort);
+    }
+
+    /**
+     * 목록 조회처럼 한 페이지를 읽고, 그때 실행된 SELECT 를 그대로 explain 한다. (파라미터는 바인딩하지 않는다)
+     */
+    private String explain(Specification<Event> spec, Sort sort) {
+        SqlStatementCounts.startRequest();
+        try {
+            this.eventRepository.findSlice(spec, PageRequest.of(0, 20, sort));
+        } finally {
+            SqlStatementCounts.finishRequest();
+        }
+        List<String> statements = SqlStatementCounts.lastRequest().getStatements();
+        assertThat(statements).hasSize(1);
+        return this.jdbcTemplate.queryForObject("explain " + statements.get(0), String.class);
+    }
+}
@@ -0,0 +1,246 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.AppProperties;
+import joowon.study.restapi.common.TestDescription;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventResponseCacheFilterTest {
+
+    static final String BODY = "{\"_embedded\":{\"eventList\":[]}}";
+    static final String ETAG = "\"abc\"";
+
+    AppProperties appProperties = new AppProperties();
+    EventResponseCache cache;
+    EventResponseCacheFilter filter;
+    AtomicInteger calls = new AtomicInteger();
+
+    FilterChain ok = (request, response) -> {
+        calls.incrementAndGet();
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        // 컨트롤러처럼 If-None-Match 를 보고 304 를 줄 수 있지만 필터가 헤더를 숨긴다
+        if (((HttpServletRequest) request).getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            httpResponse.setStatus(304);
+            return;
+        }
+        httpResponse.setContentType(MediaTypes.HAL_JSON_UTF8_VALUE);
+        httpResponse.setHeader(HttpHeaders.ETAG, ETAG);
+        httpResponse.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Before
+    public void setUp() {
+        useTtl(Duration.ofMinutes(1));
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @TestDescription("두번째 익명 요청은 캐시에서 응답하고 gzip 을 받으면 압축한 본문을 그대로 준다")
+    public void hit() throws Exception {
+        MockHttpServletResponse first = perform(request("page=1&size=10"), ok);
+        MockHttpServletRequest gzipRequest = request("page=1&size=10");
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse second = perform(gzipRequest, ok);
+
+        assertThat(calls).hasValue(1);
+        assertThat(first.getHeader(EventResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(first.getContentAsString()).isEqualTo(BODY);
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(second.getHeader(EventResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+        assertThat(second.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(second.getContentType()).isEqualTo(MediaTypes.HAL_JSON_UTF8_VALUE);
+        assertThat(gunzip(second.getContentAsByteArray())).isEqualTo(BODY);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    @TestDescription("Accept-Encoding 의 q 값을 보고 gzip;q=0 이나 identity 를 더 원하면 압축하지 않은 본문을 준다")
+    public void hit_acceptEncodingQuality() throws Exception {
+        perform(request("page=1&size=10"), ok);
+        for (String acceptEncoding : new String[]{"gzip;q=0", "deflate, gzip;q=0", "identity", "*;q=0", "*;q=0.5, identity", "gzip;q=0.5, identity;q=0.8", "gzip;q=x"}) {
+            MockHttpServletRequest request = request("page=1&size=10");
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+            MockHttpServletResponse response = perform(request, ok);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+            assertThat(response.getContentAsString()).as(acceptEncoding).isEqualTo(BODY);
+        }
+        for (String acceptEncoding : new String[]{"gzip", "GZIP;Q=0.5", "x-gzip", "*", "identity;q=0.5, *", "gzip;q=0.8, identity;q=0.8", "br;q=1.0, gzip;q=0.1"}) {
+            MockHttpServletRequest request = request("page=1&size=10");
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+            MockHttpServletResponse response = perform(request, ok);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isEqualTo("gzip");
+            assertThat(gunzip(response.getContentAsByteArray())).as(acceptEncoding).isEqualTo(BODY);
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @TestDescription("쿼리 파라미터 순서가 달라도 같은 캐시 항목을 쓴다")
+    public void normalizedKey() throws Exception {
+        perform(request("size=10&page=1&sort=name,DESC&sort=id"), ok);
+        perform(request("sort=name,DESC&page=1&sort=id&size=10"), ok);
+        perform(request("sort=id&sort=name,DESC&page=1&size=10"), ok);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @TestDescription("ETag 가 같으면 캐시에서 304 응답을 준다")
+    public void notModified() throws Exception {
+        MockHttpServletRequest first = request(null);
+        first.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse missResponse = perform(first, ok);
+        MockHttpServletRequest second = request(null);
+        second.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse hitResponse = perform(second, ok);
+
+        assertThat(missResponse.getStatus()).isEqualTo(304);
+        assertThat(hitResponse.getStatus()).isEqualTo(304);
+        assertThat(hitResponse.getContentLength()).isZero();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @TestDescription("인증된 요청은 캐시를 쓰지 않는다")
+    public void authenticatedBypass() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user", "N/A", AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        perform(request(null), ok);
+        MockHttpServletResponse second = perform(request(null), ok);
+
+        assertThat(calls).hasValue(2);
+        assertThat(second.getHeader(EventResponseCacheFilter.CACHE_STATUS_HEADER)).isNull();
+        assertThat(cache.getBypassCount()).isEqualTo(2);
+    }
+
+    @Test
+    @TestDescription("이벤트가 바뀌면 캐시를 비우고, 비우기 전에 시작한 조회는 담지 않는다")
+    public void invalidate() throws Exception {
+        perform(request(null), ok);
+        cache.invalidateAll();
+        perform(request(null), ok);
+        assertThat(calls).hasValue(2);
+
+        cache.invalidateAll();
+        FilterChain writeDuringRead = (request, response) -> {
+            ok.doFilter(request, response);
+            cache.invalidateAll();
+        };
+        perform(request(null), writeDuringRead);
+        perform(request(null), ok);
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    @TestDescription("다른 요청이 다시 조회하는 동안에는 stale 응답을 준다")
+    public void staleWhileRevalidating() throws Exception {
+        useTtl(Duration.ZERO);
+        MockHttpServletRequest request = request(null);
+        perform(request, ok);
+        String key = filter.key(request, MediaTypes.HAL_JSON_UTF8);
+
+        assertThat(cache.startRevalidation(key)).isTrue();
+        MockHttpServletResponse stale = perform(request(null), ok);
+        cache.finishRevalidation(key);
+        MockHttpServletResponse revalidated = perform(request(null), ok);
+
+        assertThat(stale.getHeader(EventResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("STALE");
+        assertThat(stale.getContentAsString()).isEqualTo(BODY);
+        assertThat(revalidated.getHeader(EventResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(calls).hasValue(2);
+        assertThat(cache.getStaleHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @TestDescription("다시 조회가 실패하면 stale 응답을 주고, stale 이 없으면 그대로 실패한다")
+    public void staleIfError() throws Exception {
+        useTtl(Duration.ZERO);
+        FilterChain failing = (request, response) -> {
+            throw new IllegalStateException("database is down");
+        };
+        perform(request(null), ok);
+
+        MockHttpServletResponse stale = perform(request(null), failing);
+        assertThat(stale.getStatus()).isEqualTo(200);
+        assertThat(stale.getContentAsString()).isEqualTo(BODY);
+
+        cache.invalidateAll();
+        assertThatThrownBy(() -> perform(request(null), failing)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @TestDescription("200 이 아닌 응답과 다른 경로는 담지 않는다")
+    public void onlyOk() throws Exception {
+        FilterChain notFound = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(404);
+        };
+        MockHttpServletRequest getEvent = new MockHttpServletRequest("GET", "/api/events/1");
+        perform(getEvent, notFound);
+        MockHttpServletResponse second = perform(new MockHttpServletRequest("GET", "/api/events/1"), notFound);
+        perform(new MockHttpServletRequest("GET", "/api/events/export"), ok);
+        perform(new MockHttpServletRequest("GET", "/api/events/export"), ok);
+
+        assertThat(second.getStatus()).isEqualTo(404);
+        assertThat(calls).hasValue(4);
+    }
+
+    private void useTtl(Duration ttl) {
+        appProperties.setEventResponseCacheTtl(ttl);
+        cache = new EventResponseCache(appProperties);
+        filter = new EventResponseCacheFilter(cache);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        if (query != null) {
+            request.setQueryString(query);
+            for (String parameter : query.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                request.addParameter(pair[0], pair[1]);
+            }
+        }
+        return request;
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
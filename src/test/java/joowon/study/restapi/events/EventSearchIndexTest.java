@@ -0,0 +1,96 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventSearchIndexTest {
+
+    EventSearchIndex index = new EventSearchIndex();
+
+    @Test
+    @TestDescription("소문자로 바꾸고 글자, 숫자가 아닌 문자로 나눈다")
+    public void tokenize() {
+        assertThat(EventSearchIndex.tokenize("Spring REST-API, 2019 spring 안양역"))
+                .containsExactly("spring", "rest", "api", "2019", "안양역");
+        assertThat(EventSearchIndex.tokenize(null)).isEmpty();
+        assertThat(EventSearchIndex.tokenize(" ,. ")).isEmpty();
+    }
+
+    @Test
+    @TestDescription("검색어의 모든 단어가 들어있는 이벤트만 찾는다")
+    public void search_allTerms() {
+        index.index(event(1, "Spring", "REST API", "강남"));
+        index.index(event(2, "Spring Boot", "JPA", "안양역"));
+        index.index(event(3, "JPA", "Spring Data", "강남"));
+
+        assertThat(index.search("spring jpa", 0, 10).getIds()).containsExactlyInAnyOrder(2, 3);
+        assertThat(index.search("SPRING 강남", 0, 10).getIds()).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.search("spring kotlin", 0, 10).getIds()).isEmpty();
+        assertThat(index.search("", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    @TestDescription("name 에 들어있으면 description 에 들어있는 것보다 앞에 온다")
+    public void search_ranking() {
+        index.index(event(1, "Study", "Spring", null));
+        index.index(event(2, "Spring", "Study", null));
+        index.index(event(3, "Java", "Study", "Spring"));
+
+        assertThat(index.search("spring", 0, 10).getIds()).containsExactly(2, 3, 1);
+    }
+
+    @Test
+    @TestDescription("다시 색인하면 예전 단어로는 찾을 수 없다")
+    public void index_update() {
+        Event event = event(1, "Spring", null, null);
+        index.index(event);
+        event.setName("Kotlin");
+        index.index(event);
+
+        assertThat(index.search("spring", 0, 10).getIds()).isEmpty();
+        assertThat(index.search("kotlin", 0, 10).getIds()).containsExactly(1);
+        assertThat(index.getDocumentCount()).isEqualTo(1);
+    }
+
+    @Test
+    @TestDescription("지운 이벤트는 검색되지 않는다")
+    public void remove() {
+        index.index(event(1, "Spring", null, null));
+        index.index(event(2, "Spring", null, null));
+
+        index.remove(1);
+        index.remove(100);
+
+        assertThat(index.search("spring", 0, 10).getIds()).containsExactly(2);
+        assertThat(index.getDocumentCount()).isEqualTo(1);
+    }
+
+    @Test
+    @TestDescription("offset, limit 로 잘라서 받고 전체 일치 수를 함께 받는다")
+    public void search_paging() {
+        for (int id = 1; id <= 25; id++) {
+            index.index(event(id, "Spring " + id, "REST API", null));
+        }
+        index.compact();
+
+        EventIndexHits first = index.search("spring api", 0, 10);
+        EventIndexHits last = index.search("spring api", 20, 10);
+
+        assertThat(first.getTotal()).isEqualTo(25);
+        // 점수가 같으면 id 가 큰 순서
+        assertThat(first.getIds()).startsWith(25, 24, 23).hasSize(10);
+        assertThat(last.getIds()).containsExactly(5, 4, 3, 2, 1);
+        assertThat(index.search("spring api", 30, 10).getIds()).isEmpty();
+    }
+
+    private static Event event(int id, String name, String description, String location) {
+        return Event.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .location(location)
+                .build();
+    }
+}
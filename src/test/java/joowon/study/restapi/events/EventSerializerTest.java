@@ -0,0 +1,148 @@
+package joowon.study.restapi.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import joowon.study.restapi.accounts.Account;
+import joowon.study.restapi.common.ApiLinks;
+import joowon.study.restapi.common.TestDescription;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.HateoasPageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 직접 쓴 serializer 의 출력이 리플렉션 기반 HAL 출력과 필드 순서까지 같아야 한다.
+ */
+public class EventSerializerTest {
+
+    ObjectMapper reflective;
+    ObjectMapper handWritten;
+    PagedResourcesAssembler<Event> assembler = new PagedResourcesAssembler<>(new HateoasPageableHandlerMethodArgumentResolver(), null);
+
+    @Before
+    public void setUp() {
+        reflective = halObjectMapper();
+        handWritten = halObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(Event.class, new EventSerializer())
+                .addSerializer(EventResource.class, new EventResourceSerializer())
+                .addSerializer(EventPagedResources.class, new EventPagedResourcesSerializer()));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+        request.setQueryString("page=1&size=10&sort=name,DESC");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @TestDescription("Event 와 EventResource 출력이 리플렉션 출력과 같다")
+    public void event() throws Exception {
+        Event event = event(1);
+        Event empty = Event.builder().id(2).eventStatus(null).build();
+
+        assertThat(handWritten.writeValueAsString(event)).isEqualTo(reflective.writeValueAsString(event));
+        assertThat(handWritten.writeValueAsString(empty)).isEqualTo(reflective.writeValueAsString(empty));
+
+        EventResource resource = new EventResource(event, ApiLinks.profile("resources-events-get"),
+                new Link("/api/events/1", "update-event"), new Link("/api/events/{id}", "same").withTitle("a"),
+                new Link("/api/events/2", "same"));
+        assertThat(handWritten.writeValueAsString(resource)).isEqualTo(reflective.writeValueAsString(resource));
+    }
+
+    @Test
+    @TestDescription("페이지 응답 출력이 리플렉션 출력과 같다")
+    public void page() throws Exception {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(event(i));
+        }
+        PagedResources<EventResource> pagedResources = assembler.toResource(
+                new PageImpl<>(events, PageRequest.of(1, 10), 30), e -> new EventResource(e));
+        pagedResources.add(ApiLinks.profile("resources-events-list"));
+
+        // page.total 은 EventPagedResources 에만 있다
+        String expected = reflective.writeValueAsString(pagedResources).replaceFirst("}}$", ",\"total\":\"EXACT\"}}");
+        assertThat(handWritten.writeValueAsString(new EventPagedResources(pagedResources))).isEqualTo(expected);
+    }
+
+    @Test
+    @TestDescription("전체 개수를 모르면 totalElements, totalPages, last 링크를 쓰지 않는다")
+    public void absentTotal() throws Exception {
+        List<Event> events = List.of(event(1), event(2));
+        PagedResources<EventResource> pagedResources = assembler.toResource(
+                new PageImpl<>(events, PageRequest.of(1, 2), 5), e -> new EventResource(e));
+
+        JsonNode json = handWritten.readTree(handWritten.writeValueAsString(
+                new EventPagedResources(pagedResources, EventPageTotal.ABSENT)));
+
+        assertThat(json.at("/page/total").asText()).isEqualTo("ABSENT");
+        assertThat(json.at("/page/totalElements").isMissingNode()).isTrue();
+        assertThat(json.at("/page/totalPages").isMissingNode()).isTrue();
+        assertThat(json.at("/page/number").asInt()).isEqualTo(1);
+        assertThat(json.at("/_links/next").isMissingNode()).isFalse();
+        assertThat(json.at("/_links/last").isMissingNode()).isTrue();
+    }
+
+    @Test
+    @TestDescription("빈 페이지는 _embedded 없이 쓴다")
+    public void emptyPage() throws Exception {
+        PagedResources<EventResource> pagedResources = assembler.toResource(
+                new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 10), 0), e -> new EventResource(e));
+
+        String json = handWritten.writeValueAsString(new EventPagedResources(pagedResources));
+
+        assertThat(json).doesNotContain("_embedded");
+        assertThat(handWritten.readTree(json).at("/page/totalElements").asLong()).isZero();
+        assertThat(handWritten.readTree(json).at("/page/size").asInt()).isEqualTo(10);
+    }
+
+    private static ObjectMapper halObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jackson2HalModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(new DefaultRelProvider(), null, null));
+        return objectMapper;
+    }
+
+    private static Event event(int id) {
+        return Event.builder()
+                .id(id)
+                .name("event " + id)
+                .description("\"quoted\" 설명\n")
+                .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 1, 9, 18))
+                .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 2, 9, 18, 30, 5_000_000))
+                .beginEventDateTime(LocalDateTime.of(2018, 11, 3, 9, 0))
+                .endEventDateTime(LocalDateTime.of(2018, 11, 4, 9, 18))
+                .basePrice(100)
+                .maxPrice(200)
+                .limitOfEnrollment(100)
+                .location("안양역")
+                .offline(true)
+                .eventStatus(EventStatus.PUBLISHED)
+                .manager(Account.builder().id(7).build())
+                .build();
+    }
+}
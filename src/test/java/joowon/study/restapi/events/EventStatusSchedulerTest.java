@@ -0,0 +1,117 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("test")
+public class EventStatusSchedulerTest {
+
+    @Autowired
+    EventStatusScheduler eventStatusScheduler;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    EventCache eventCache;
+
+    @Before
+    public void setup() {
+        this.eventRepository.deleteAll();
+    }
+
+    @Test
+    @TestDescription("다시 기동한 것처럼 DB 에서 읽어서 모집 시작 일시가 지난 PUBLISHED 이벤트만 BEGAN_ENROLLMENT 로 바꾼다")
+    public void resyncAndTick() {
+        Event due = save("due", EventStatus.PUBLISHED, LocalDateTime.now().minusMinutes(1));
+        Event draft = save("draft", EventStatus.DRAFT, LocalDateTime.now().minusMinutes(1));
+        Event future = save("future", EventStatus.PUBLISHED, LocalDateTime.now().plusDays(1));
+        this.eventCache.findById(due.getId());
+        long transitions = this.eventStatusScheduler.getTransitionCount();
+
+        this.eventStatusScheduler.resync();
+        assertThat(this.eventStatusScheduler.isScheduled(future.getId())).isTrue();
+        assertThat(this.eventStatusScheduler.isScheduled(draft.getId())).isFalse();
+        this.eventStatusScheduler.tick();
+
+        // 백그라운드 tick 이 먼저 꺼냈으면 그쪽 UPDATE 가 끝나기를 기다린다
+        Event updated = awaitStatus(due.getId(), EventStatus.BEGAN_ENROLLMENT);
+        assertThat(updated.getEventStatus()).isEqualTo(EventStatus.BEGAN_ENROLLMENT);
+        assertThat(updated.getVersion()).isEqualTo(due.getVersion() + 1);
+        // 벌크 UPDATE 뒤에 캐시에서 예전 상태를 꺼내지 않는다
+        assertThat(this.eventCache.findById(due.getId()).get().getEventStatus()).isEqualTo(EventStatus.BEGAN_ENROLLMENT);
+        assertThat(this.eventRepository.findById(draft.getId()).get().getEventStatus()).isEqualTo(EventStatus.DRAFT);
+        assertThat(this.eventRepository.findById(future.getId()).get().getEventStatus()).isEqualTo(EventStatus.PUBLISHED);
+        assertThat(this.eventStatusScheduler.isScheduled(future.getId())).isTrue();
+        assertThat(this.eventStatusScheduler.getTransitionCount()).isGreaterThan(transitions);
+        assertThat(this.eventStatusScheduler.getLastLag()).isGreaterThanOrEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    @TestDescription("예약한 뒤 상태가 바뀌거나 삭제된 이벤트는 바꾸지 않는다")
+    public void schedule_changedOrRemoved() {
+        Event unpublished = save("unpublished", EventStatus.PUBLISHED, LocalDateTime.now().plusDays(1));
+        Event removed = save("removed", EventStatus.PUBLISHED, LocalDateTime.now().plusDays(1));
+        this.eventStatusScheduler.schedule(unpublished);
+        this.eventStatusScheduler.schedule(removed);
+
+        unpublished.setEventStatus(EventStatus.DRAFT);
+        unpublished = this.eventRepository.save(unpublished);
+        this.eventStatusScheduler.schedule(unpublished);
+        this.eventRepository.delete(removed);
+
+        assertThat(this.eventStatusScheduler.isScheduled(unpublished.getId())).isFalse();
+        assertThat(this.eventStatusScheduler.isScheduled(removed.getId())).isFalse();
+    }
+
+    @Test
+    @TestDescription("휠에 남아 있지만 그 사이 상태가 바뀐 이벤트는 상태 변경 수와 지연에 세지 않는다")
+    public void tick_stale() {
+        Event stale = save("stale", EventStatus.PUBLISHED, LocalDateTime.now().minusMinutes(1));
+        this.eventStatusScheduler.schedule(stale);
+        // 벌크 UPDATE 처럼 schedule 을 부르지 않고 상태만 바꾼다
+        stale.setEventStatus(EventStatus.DRAFT);
+        stale = this.eventRepository.save(stale);
+        long transitions = this.eventStatusScheduler.getTransitionCount();
+        Duration lag = this.eventStatusScheduler.getTotalTransitionLag();
+
+        this.eventStatusScheduler.tick();
+
+        assertThat(this.eventStatusScheduler.isScheduled(stale.getId())).isFalse();
+        assertThat(this.eventRepository.findById(stale.getId()).get().getEventStatus()).isEqualTo(EventStatus.DRAFT);
+        assertThat(this.eventStatusScheduler.getTransitionCount()).isEqualTo(transitions);
+        assertThat(this.eventStatusScheduler.getTotalTransitionLag()).isEqualTo(lag);
+    }
+
+    private Event awaitStatus(Integer id, EventStatus eventStatus) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Event event = this.eventRepository.findById(id).get();
+        while (event.getEventStatus() != eventStatus && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+            event = this.eventRepository.findById(id).get();
+        }
+        return event;
+    }
+
+    private Event save(String name, EventStatus eventStatus, LocalDateTime beginEnrollmentDateTime) {
+        return this.eventRepository.save(Event.builder()
+                .name(name)
+                .beginEnrollmentDateTime(beginEnrollmentDateTime)
+                .closeEnrollmentDateTime(beginEnrollmentDateTime.plusDays(7))
+                .eventStatus(eventStatus)
+                .build());
+    }
+}
@@ -5,6 +5,8 @@ import junitparams.Parameters;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.time.LocalDateTime;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @RunWith(JUnitParamsRunner.class)
@@ -32,6 +34,32 @@ public class EventTest {
         assertThat(event.getDescription()).isEqualTo(description);
     }
 
+    @Test
+    public void enrollingAtClose() {
+        LocalDateTime begin = LocalDateTime.of(2018, 11, 23, 14, 21);
+        LocalDateTime close = LocalDateTime.of(2018, 11, 24, 14, 21);
+        Event event = Event.builder()
+                .id(1)
+                .beginEnrollmentDateTime(begin)
+                .closeEnrollmentDateTime(close)
+                .eventStatus(EventStatus.BEGAN_ENROLLMENT)
+                .build();
+        EventIntervalIndex index = new EventIntervalIndex();
+        index.index(event);
+
+        // 마감 일시 그 순간은 /enrolling 에 나오고 신청도 받는다
+        assertThat(event.isEnrollingAt(close)).isTrue();
+        assertThat(index.overlaps(EventIntervalIndex.Period.ENROLLMENT, close, close, 0, 10).getIds()).containsExactly(1);
+        assertThat(event.isEnrollingAt(begin)).isTrue();
+
+        assertThat(event.isEnrollingAt(close.plusNanos(1))).isFalse();
+        assertThat(index.overlaps(EventIntervalIndex.Period.ENROLLMENT, close.plusNanos(1), close.plusNanos(1), 0, 10).getIds()).isEmpty();
+        assertThat(event.isEnrollingAt(begin.minusNanos(1))).isFalse();
+
+        event.setEventStatus(EventStatus.DRAFT);
+        assertThat(event.isEnrollingAt(close)).isFalse();
+    }
+
     private Object[] parametersForTestFree(){
         return new Object[] {
                 new Object[] {0, 0, true},
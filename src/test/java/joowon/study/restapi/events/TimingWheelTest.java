@@ -0,0 +1,102 @@
+package joowon.study.restapi.events;
+
+import joowon.study.restapi.common.TestDescription;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_546_300_800_000L;
+
+    TimingWheel wheel = new TimingWheel(TICK, START);
+
+    @Test
+    @TestDescription("예정 시각이 된 tick 에 꺼내고 일찍 꺼내지 않는다")
+    public void advance() {
+        wheel.schedule(1, START + 2_500);
+        wheel.schedule(2, START + 1_000);
+        wheel.schedule(3, START - 60_000);
+
+        assertThat(advance(START)).containsExactly(3);
+        assertThat(advance(START + 2_999)).containsExactly(2);
+        assertThat(advance(START + 3_000)).containsExactly(1);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @TestDescription("다시 예약하면 바뀐 시각에 한번만 꺼내고 취소하면 꺼내지 않는다")
+    public void rescheduleAndCancel() {
+        wheel.schedule(1, START + 5_000);
+        wheel.schedule(1, START + 90_000);
+        wheel.schedule(2, START + 5_000);
+        wheel.schedule(2, START + 2_000);
+        wheel.schedule(3, START + 5_000);
+        wheel.cancel(3);
+
+        assertThat(advance(START + 10_000)).containsExactly(2);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(advance(START + 100_000)).containsExactly(1);
+        assertThat(wheel.isScheduled(1)).isFalse();
+    }
+
+    @Test
+    @TestDescription("상위 레벨과 overflow 에 넣은 먼 예정도 시각에 맞춰 꺼낸다")
+    public void farFuture() {
+        long year = 365L * 24 * 3600 * 1000;
+        wheel.schedule(1, START + 3 * year);
+        wheel.schedule(2, START + 100L * 3600 * 1000);
+
+        assertThat(advance(START + 100L * 3600 * 1000 - 1)).isEmpty();
+        assertThat(advance(START + 100L * 3600 * 1000)).containsExactly(2);
+        assertThat(advance(START + 3 * year - 1)).isEmpty();
+        assertThat(advance(START + 3 * year)).containsExactly(1);
+    }
+
+    @Test
+    @TestDescription("무작위로 예약, 취소해도 모든 예정을 올림한 tick 에 정확히 한번 꺼낸다")
+    public void random() {
+        Random random = new Random(3);
+        Map<Integer, Long> expected = new HashMap<>();
+        long now = START;
+        List<long[]> fired = new ArrayList<>();
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = 0; i < 20; i++) {
+                int id = random.nextInt(5_000);
+                if (random.nextInt(5) == 0) {
+                    wheel.cancel(id);
+                    expected.remove(id);
+                } else {
+                    long due = now + (long) (Math.pow(random.nextDouble(), 4) * 20_000_000L);
+                    wheel.schedule(id, due);
+                    expected.put(id, due);
+                }
+            }
+            now += random.nextInt(30_000);
+            long at = now;
+            wheel.advance(at, (id, due) -> {
+                fired.add(new long[]{id, due, at});
+                assertThat(expected.remove(id)).isEqualTo(due);
+            });
+            for (Map.Entry<Integer, Long> entry : expected.entrySet()) {
+                // 남은 예정은 아직 tick 이 되지 않았다
+                assertThat(Math.floorDiv(entry.getValue() + TICK - 1, TICK)).isGreaterThan(Math.floorDiv(at, TICK));
+            }
+        }
+        assertThat(wheel.size()).isEqualTo(expected.size());
+        assertThat(fired).allSatisfy(f -> assertThat(f[1]).isLessThanOrEqualTo(f[2] + TICK));
+    }
+
+    private List<Integer> advance(long now) {
+        List<Integer> fired = new ArrayList<>();
+        wheel.advance(now, (id, due) -> fired.add(id));
+        return fired;
+    }
+}